@@ -9,10 +9,16 @@ class SudokuState {
 	constructor() {
 		this.board = [];
 		this.solution = [];
+		this.gameId = null;
+		this.seed = null;
+		this.difficulty = null;
 		this.activeCell = null;
 		this.isNoteMode = false;
 		this.undoStack = [];
 		this.redoStack = [];
+		// Progress as last stored on the server, autosaves only send the cells that differ from it.
+		this.savedProgress = null;
+		this.finished = false;
 		let timerInterval, startTime;
 		let pausedTime = 0;
 		let isPaused = false;
@@ -39,12 +45,14 @@ class SudokuState {
 		if (!this.undoStack.length) return;
 		this.redoStack.push(this.snapshot());
 		this.restore(this.undoStack.pop());
+		scheduleAutosave();
 	}
 
 	redo() {
 		if (!this.redoStack.length) return;
 		this.undoStack.push(this.snapshot());
 		this.restore(this.redoStack.pop());
+		scheduleAutosave();
 	}
 }
 
@@ -96,14 +104,20 @@ async function loadSudoku() {
 			throw new Error("Ungültiges Datenformat");
 
 		state.solution = data.solution;
+		state.gameId = data.id || null;
+		state.seed = data.seed ?? null;
+		state.difficulty = data.difficulty ?? null;
+		state.savedProgress = data.sudoku.map((row, r) =>
+			row.map((cell, c) => (cell ? 0 : data.progress?.[r]?.[c] || 0))
+		);
 
 		// Spielfeld wiederherstellen
 		if (data.currentState) {
 			state.board = data.currentState;
 		} else {
-			state.board = data.sudoku.map((row) =>
-				row.map((cell) => ({
-					value: cell || null,
+			state.board = data.sudoku.map((row, r) =>
+				row.map((cell, c) => ({
+					value: cell || data.progress?.[r]?.[c] || null,
 					notes: [],
 					fixed: !!cell,
 					invalid: false,
@@ -157,6 +171,9 @@ function createEmptyBoard() {
 	);
 
 	state.solution = [];
+	state.gameId = null;
+	state.seed = null;
+	state.difficulty = null;
 }
 
 function hasConflict() {
@@ -341,6 +358,7 @@ function handleInput(value) {
 			cell.invalid = false;
 			checkConflicts();
 			renderBoard();
+			scheduleAutosave();
 			return;
 		} else {
 			cell.value = numValue;
@@ -370,6 +388,8 @@ function handleInput(value) {
 
 	if (isGameWon()) {
 		setTimeout(handleGameWon, 300);
+	} else {
+		scheduleAutosave();
 	}
 }
 
@@ -631,6 +651,7 @@ function deleteActiveCell() {
 	});
 	checkConflicts();
 	renderBoard();
+	scheduleAutosave();
 }
 
 function resetGame() {
@@ -651,6 +672,7 @@ function resetGame() {
 	state.errorCount = 0;
 	updateErrorDisplay();
 	restartTimer(true);
+	scheduleAutosave();
 }
 
 // === Sidebar ===
@@ -788,15 +810,23 @@ function startNewGame() {
 }
 
 function saveCurrentGame() {
+	clearTimeout(autosaveTimeout);
 	const startBoard = state.board.map((row) =>
 		row.map((cell) => (cell.fixed ? cell.value : null))
 	);
 
 	const elapsed = Date.now() - startTime;
 
+	const progress = state.board.map((row) =>
+		row.map((cell) => (cell.fixed ? null : cell.value))
+	);
+
 	const gameData = {
 		sudoku: startBoard,
+		progress: progress,
 		solution: state.solution,
+		seed: state.seed,
+		difficulty: state.difficulty,
 		currentState: state.board,
 		errorCount: state.errorCount,
 		elapsedTime: elapsed,
@@ -817,8 +847,12 @@ function saveCurrentGame() {
 					'Authorization': 'Bearer ' + token
 				},
 				body: JSON.stringify({
+					id: state.gameId ?? 0,
 					sudoku: gameData.sudoku,
 					solution: gameData.solution,
+					progress: gameData.progress,
+					seed: gameData.seed,
+					difficulty: gameData.difficulty,
 					errorCount: gameData.errorCount,
 					elapsedTime: gameData.elapsedTime
 				})
@@ -828,12 +862,76 @@ function saveCurrentGame() {
 				throw new Error("Could not store game for later!")
 			}
 			return response.json();
+		}).then(saved => {
+			// Later saves update this game instead of creating a new one.
+			state.gameId = saved.id;
+			state.savedProgress = progress.map((row) => row.map((value) => value || 0));
 		}).catch(err => {
 			console.error('Fetch error:', err);
 		});
 	}
 }
 
+// === Autosave ===
+const AUTOSAVE_DELAY = 2000;
+let autosaveTimeout;
+
+function scheduleAutosave() {
+	if (isCreateMode() || state.finished || !isAuthenticated()) return;
+	clearTimeout(autosaveTimeout);
+	autosaveTimeout = setTimeout(autosave, AUTOSAVE_DELAY);
+}
+
+function currentProgress() {
+	return state.board.map((row) =>
+		row.map((cell) => (cell.fixed ? 0 : cell.value || 0))
+	);
+}
+
+// Sends only the cells changed since the last save. The first save of a game stores it as a whole.
+function autosave() {
+	if (state.finished) return;
+	if (state.gameId == null || state.savedProgress == null) {
+		saveCurrentGame();
+		return;
+	}
+	const progress = currentProgress();
+	const cells = [];
+	progress.forEach((row, x) =>
+		row.forEach((value, y) => {
+			if (value !== state.savedProgress[x][y]) cells.push({ x, y, value });
+		})
+	);
+	fetch(`http://localhost:8080/sudoku/save/delta`,
+		{
+			method: "POST",
+			headers: {
+				"Content-Type": "application/json",
+				'Authorization': 'Bearer ' + getToken()
+			},
+			body: JSON.stringify({
+				sudokuId: state.gameId,
+				cells: cells,
+				errorCount: state.errorCount,
+				elapsedTime: Date.now() - startTime
+			})
+		}
+	).then(response => {
+		if (response.status === 404) {
+			// The game is no longer stored, save it again as a whole.
+			state.gameId = null;
+			saveCurrentGame();
+			return;
+		}
+		if (!response.ok) {
+			throw new Error("Could not autosave the game!")
+		}
+		state.savedProgress = progress;
+	}).catch(err => {
+		console.error('Fetch error:', err);
+	});
+}
+
 function updateErrorDisplay() {
 	const settings = window.getSettings();
 	const checkMistakes = settings?.checkMistakes ?? true;
@@ -870,6 +968,8 @@ function isGameWon() {
 }
 
 function handleGameWon() {
+	state.finished = true;
+	clearTimeout(autosaveTimeout);
 	openWinPopup();
 	fetch(`http://localhost:8080/sudoku/cancel`,
 		{
@@ -891,6 +991,8 @@ function handleGameWon() {
 }
 
 function handleGameOver() {
+	state.finished = true;
+	clearTimeout(autosaveTimeout);
 	openLosePopup();
 	fetch(`http://localhost:8080/sudoku/cancel`,
 		{
@@ -0,0 +1,52 @@
+package com.sudoku.backend.benchmarks;
+
+import com.sudoku.backend.generator.Canonicalizer;
+import com.sudoku.backend.generator.SudokuSolver;
+import com.sudoku.backend.generator.models.Grid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+
+/**
+ * Canonicalization and hashing of the checked-in seed puzzles, whose solutions are solved once per trial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CanonicalizationBenchmark {
+    @Param({"0", "1", "2", "3", "4"})
+    public int puzzle;
+
+    private Grid sudoku;
+    private Grid solution;
+
+    @Setup
+    public void setup() {
+        int[][] grid = ReferencePuzzles.load(ReferencePuzzles.SEED).get(puzzle);
+        int[][] solved = ReferencePuzzles.copy(grid);
+        new SudokuSolver().solve(solved, new SplittableRandom(0x5EED));
+        sudoku = Grid.of(grid);
+        solution = Grid.of(solved);
+    }
+
+    @Benchmark
+    public byte[] canonicalize() {
+        return Canonicalizer.canonicalize(sudoku, solution);
+    }
+
+    @Benchmark
+    public long hash() {
+        return Canonicalizer.hash(sudoku, solution);
+    }
+}
@@ -0,0 +1,68 @@
+package com.sudoku.backend.benchmarks;
+
+import com.sudoku.backend.GeneratorConfig;
+import com.sudoku.backend.generator.SolutionCounter;
+import com.sudoku.backend.generator.SudokuSolver;
+import com.sudoku.backend.jpa.entities.Sudoku;
+import com.sudoku.backend.services.GeneratorMetrics;
+import com.sudoku.backend.services.SudokuService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Full generation of a new game (filling the solution and the cell-removal loop) per difficulty, compared with
+ * deriving games from base puzzles by transformations.
+ * The random source of the full generation is seeded once per trial, so every run generates the same sequence of puzzles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenerationBenchmark {
+    @Param({"EASY", "MEDIUM", "HARD"})
+    public SudokuService.Difficulty difficulty;
+
+    @Param({"bitmask", "dlx"})
+    public String solutionCounter;
+
+    private SudokuService service;
+    private SudokuService amplifiedService;
+    private SplittableRandom random;
+
+    @Setup
+    public void setup() {
+        SudokuSolver solver = new SudokuSolver();
+        SolutionCounter counter = new GeneratorConfig().solutionCounter(solutionCounter, solver);
+        GeneratorMetrics metrics = new GeneratorMetrics(new SimpleMeterRegistry());
+        service = new SudokuService(null, null, solver, counter, null, null, null, metrics, null, 0, List.of(), 0, 0, 100_000);
+        amplifiedService = new SudokuService(null, null, solver, counter, null, null, null, metrics, null, 0,
+                List.of(difficulty), 32, 1000, 100_000);
+        random = new SplittableRandom(0x5EED);
+    }
+
+    @Benchmark
+    public Sudoku newSudoku() {
+        return service.newSudoku(difficulty, random.nextLong());
+    }
+
+    /**
+     * Transformed copies of base puzzles, including the generation of a new base puzzle every 1000 games.
+     */
+    @Benchmark
+    public Sudoku transformedSudoku() {
+        return amplifiedService.newSudoku(difficulty);
+    }
+}
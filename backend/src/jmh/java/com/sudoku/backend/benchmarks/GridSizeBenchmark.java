@@ -0,0 +1,68 @@
+package com.sudoku.backend.benchmarks;
+
+import com.sudoku.backend.generator.DancingLinksCounter;
+import com.sudoku.backend.generator.SolutionCounter;
+import com.sudoku.backend.generator.SudokuSolver;
+import com.sudoku.backend.jpa.entities.Sudoku;
+import com.sudoku.backend.services.GeneratorMetrics;
+import com.sudoku.backend.services.SudokuService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filling an empty grid and counting the solutions of an easy puzzle per grid size. The puzzle is generated once per
+ * trial from a fixed seed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GridSizeBenchmark {
+    @Param({"3", "4", "5"})
+    public int boxSize;
+
+    private SudokuSolver solver;
+    private SolutionCounter counter;
+    private int[][] puzzle;
+    private SplittableRandom random;
+
+    @Setup
+    public void setup() {
+        solver = new SudokuSolver();
+        counter = new DancingLinksCounter();
+        GeneratorMetrics metrics = new GeneratorMetrics(new SimpleMeterRegistry());
+        SudokuService service = new SudokuService(null, null, solver, counter, null, null, null, metrics, null, 0,
+                List.of(), 0, 0, 100_000);
+        Sudoku sudoku = service.newSudoku(SudokuService.Difficulty.EASY, boxSize, 0x5EED);
+        puzzle = sudoku.getSudoku();
+        random = new SplittableRandom(0x5EED);
+    }
+
+    @Benchmark
+    public int[][] fill() {
+        int[][] grid = new int[boxSize * boxSize][boxSize * boxSize];
+        solver.solve(grid, random);
+        return grid;
+    }
+
+    @Benchmark
+    public int countSolutions() {
+        return counter.countSolutions(puzzle, 2);
+    }
+}
@@ -0,0 +1,51 @@
+package com.sudoku.backend.benchmarks;
+
+import com.sudoku.backend.generator.HintEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Candidate computation and hint search on the checked-in seed puzzles. Candidates are written into a preallocated
+ * array, so the score shows the cost of the computation alone; it is expected to stay below a microsecond.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HintBenchmark {
+    @Param({"0", "1", "2", "3", "4"})
+    public int puzzle;
+
+    private final HintEngine engine = new HintEngine();
+    private final int[] candidates = new int[81];
+    private int[][] grid;
+
+    @Setup
+    public void setup() {
+        grid = ReferencePuzzles.load(ReferencePuzzles.SEED).get(puzzle);
+    }
+
+    @Benchmark
+    public int[] candidates() {
+        engine.candidates(grid, candidates);
+        return candidates;
+    }
+
+    @Benchmark
+    public HintEngine.Hint nextStep() {
+        return engine.nextStep(grid);
+    }
+}
@@ -0,0 +1,59 @@
+package com.sudoku.backend.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads the checked-in puzzles from reference-puzzles.txt, so every benchmark run works on the same grids.
+ */
+public final class ReferencePuzzles {
+    public static final String SEED = "seed";
+    public static final String HARD = "hard";
+
+    private ReferencePuzzles() {}
+
+    /**
+     * Returns all puzzles of a group in file order.
+     */
+    public static List<int[][]> load(String group) {
+        List<int[][]> puzzles = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                ReferencePuzzles.class.getResourceAsStream("/reference-puzzles.txt"), StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.trim().split("\\s+");
+                if (parts[0].equals(group)) {
+                    puzzles.add(parse(parts[2]));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return puzzles;
+    }
+
+    static int[][] parse(String cells) {
+        int[][] grid = new int[9][9];
+        for (int i = 0; i < 81; i++) {
+            char c = cells.charAt(i);
+            grid[i / 9][i % 9] = c == '.' ? 0 : c - '0';
+        }
+        return grid;
+    }
+
+    static int[][] copy(int[][] grid) {
+        int[][] copy = new int[grid.length][];
+        for (int i = 0; i < grid.length; i++) {
+            copy[i] = grid[i].clone();
+        }
+        return copy;
+    }
+}
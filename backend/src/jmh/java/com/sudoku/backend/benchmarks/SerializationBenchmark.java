@@ -0,0 +1,46 @@
+package com.sudoku.backend.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sudoku.backend.generator.SudokuSolver;
+import com.sudoku.backend.jpa.entities.Sudoku;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+
+/**
+ * JSON serialization of a {@link Sudoku} as returned by the REST endpoints.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    private final ObjectMapper mapper = new ObjectMapper();
+    private Sudoku sudoku;
+
+    @Setup
+    public void setup() {
+        int[][] puzzle = ReferencePuzzles.load(ReferencePuzzles.SEED).get(0);
+        int[][] solution = ReferencePuzzles.copy(puzzle);
+        new SudokuSolver().solve(solution, new SplittableRandom(0x5EED));
+
+        sudoku = new Sudoku();
+        sudoku.setSudoku(puzzle);
+        sudoku.setSolution(solution);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(sudoku);
+    }
+}
@@ -0,0 +1,44 @@
+package com.sudoku.backend.benchmarks;
+
+import com.sudoku.backend.generator.SudokuSolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+
+/**
+ * Solving the checked-in seed puzzles. Each operation solves a fresh copy, because solving fills the grid.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolveBenchmark {
+    @Param({"0", "1", "2", "3", "4"})
+    public int puzzle;
+
+    private final SudokuSolver solver = new SudokuSolver();
+    private final SplittableRandom random = new SplittableRandom(0x5EED);
+    private int[][] grid;
+
+    @Setup
+    public void setup() {
+        grid = ReferencePuzzles.load(ReferencePuzzles.SEED).get(puzzle);
+    }
+
+    @Benchmark
+    public int[][] solve() {
+        int[][] copy = ReferencePuzzles.copy(grid);
+        solver.solve(copy, random);
+        return copy;
+    }
+}
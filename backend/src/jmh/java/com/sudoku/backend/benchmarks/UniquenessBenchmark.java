@@ -0,0 +1,53 @@
+package com.sudoku.backend.benchmarks;
+
+import com.sudoku.backend.GeneratorConfig;
+import com.sudoku.backend.generator.SolutionCounter;
+import com.sudoku.backend.generator.SudokuSolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Uniqueness checks (counting up to two solutions) on the checked-in hard puzzles, once on a whole grid and once
+ * through a session as used by the cell-removal loop.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UniquenessBenchmark {
+    @Param({"0", "1", "2"})
+    public int puzzle;
+
+    @Param({"bitmask", "dlx"})
+    public String solutionCounter;
+
+    private SolutionCounter counter;
+    private SolutionCounter.Session session;
+    private int[][] grid;
+
+    @Setup
+    public void setup() {
+        counter = new GeneratorConfig().solutionCounter(solutionCounter, new SudokuSolver());
+        grid = ReferencePuzzles.load(ReferencePuzzles.HARD).get(puzzle);
+        session = counter.open(grid);
+    }
+
+    @Benchmark
+    public int countSolutions() {
+        return counter.countSolutions(grid, 2);
+    }
+
+    @Benchmark
+    public int countSolutionsInSession() {
+        return session.countSolutions(2);
+    }
+}
@@ -0,0 +1,69 @@
+package com.sudoku.backend.loadtest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The stored p95 latency per endpoint a run is compared against, as {@code <endpoint>.p95=<milliseconds>} entries in a
+ * properties file.
+ */
+public class Baseline {
+    private final Path file;
+    private final Properties values = new Properties();
+
+    public Baseline(Path file) throws IOException {
+        this.file = file;
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                values.load(reader);
+            }
+        }
+    }
+
+    /**
+     * Returns a message for every endpoint whose p95 latency exceeds its baseline by more than the tolerance.
+     * Endpoints without a baseline are not checked.
+     *
+     * @param tolerance The allowed increase as a fraction of the baseline, e.g. 0.5 for 50%.
+     */
+    public List<String> regressions(Map<String, LatencyRecorder.Stats> stats, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        stats.forEach((endpoint, s) -> {
+            String stored = values.getProperty(endpoint + ".p95");
+            if (stored == null) {
+                return;
+            }
+            double baseline = Double.parseDouble(stored);
+            double limit = baseline * (1 + tolerance);
+            if (s.p95Millis() > limit) {
+                regressions.add(String.format(Locale.ROOT, "%s: p95 %.1f ms exceeds the baseline of %.1f ms by more than %.0f%%",
+                        endpoint, s.p95Millis(), baseline, tolerance * 100));
+            }
+        });
+        return regressions;
+    }
+
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    /**
+     * Replaces the stored values with the p95 latencies of the run.
+     */
+    public void write(Map<String, LatencyRecorder.Stats> stats, String comment) throws IOException {
+        values.clear();
+        stats.forEach((endpoint, s) -> values.setProperty(endpoint + ".p95", String.format(Locale.ROOT, "%.1f", s.p95Millis())));
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            values.store(writer, comment);
+        }
+    }
+}
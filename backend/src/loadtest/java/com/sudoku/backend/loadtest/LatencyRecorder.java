@@ -0,0 +1,74 @@
+package com.sudoku.backend.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects the latency of every request per endpoint and turns them into percentiles at the end of a run.
+ * <p>
+ * Every sample is kept, a run of a few minutes produces a few million of them at most. Recording is synchronized per
+ * endpoint, which costs far less than the HTTP round trip it measures.
+ */
+public class LatencyRecorder {
+    private final Map<String, Samples> endpoints = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, long nanos, boolean error) {
+        endpoints.computeIfAbsent(endpoint, e -> new Samples()).add(nanos, error);
+    }
+
+    /**
+     * Returns the statistics of all endpoints, sorted by name.
+     *
+     * @param seconds The length of the measured run, for the throughput.
+     */
+    public Map<String, Stats> stats(double seconds) {
+        Map<String, Stats> stats = new TreeMap<>();
+        endpoints.forEach((endpoint, samples) -> stats.put(endpoint, samples.stats(seconds)));
+        return stats;
+    }
+
+    /**
+     * @param count      The number of requests.
+     * @param errors     The number of requests with an unexpected status or without a response.
+     * @param throughput Requests per second.
+     */
+    public record Stats(int count, int errors, double throughput, double p50Millis, double p90Millis,
+                        double p95Millis, double p99Millis, double maxMillis) {
+    }
+
+    private static final class Samples {
+        private long[] nanos = new long[1024];
+        private int count;
+        private int errors;
+
+        private synchronized void add(long sample, boolean error) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = sample;
+            if (error) {
+                errors++;
+            }
+        }
+
+        private synchronized Stats stats(double seconds) {
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            return new Stats(count, errors, count / seconds, percentile(sorted, 0.50), percentile(sorted, 0.90),
+                    percentile(sorted, 0.95), percentile(sorted, 0.99), percentile(sorted, 1.0));
+        }
+
+        /**
+         * Nearest-rank percentile in milliseconds.
+         */
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(p * sorted.length);
+            return sorted[Math.max(rank, 1) - 1] / 1_000_000.0;
+        }
+    }
+}
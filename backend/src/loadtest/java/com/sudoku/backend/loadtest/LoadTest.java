@@ -0,0 +1,378 @@
+package com.sudoku.backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sudoku.backend.BackendApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Starts the backend against an in-memory database and a {@link StubJwtIssuer}, drives mixed traffic of many users
+ * against it and reports throughput and latency percentiles per endpoint.
+ * <p>
+ * Every virtual user has its own token and loops over the actions of a player: it starts a game by generating and
+ * saving a puzzle, then mostly saves its progress, continues its game and loads or saves its settings. Requests of
+ * the warmup are not recorded.
+ * <p>
+ * With {@code burst=<clients>} a second phase follows with the same users while the burst clients keep the generation
+ * threads busy with batch generations. It shows if a generation burst slows down the endpoints which do not generate:
+ * their p95 latency in the burst phase must stay within the tolerance of the first phase.
+ * <p>
+ * The run fails with exit code 1 if more requests than allowed fail, there is no stored baseline, the p95 latency of
+ * an endpoint exceeds its stored baseline by more than the tolerance or an endpoint which does not generate gets
+ * slower during the burst.
+ * Arguments are {@code key=value} pairs, see {@link Options}.
+ */
+public class LoadTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Duration TOKEN_VALIDITY = Duration.ofHours(1);
+    // The endpoints whose latency must not depend on the generation load.
+    private static final List<String> NON_GENERATING = List.of("continue", "settings.load", "settings.save");
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        int exitCode;
+        try (StubJwtIssuer issuer = new StubJwtIssuer()) {
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class, LoadTestStandIns.class)
+                    .profiles("loadtest")
+                    // An argument, since default properties would not override the URI of application.yml.
+                    .run("--spring.security.oauth2.resourceserver.jwt.jwk-set-uri=" + issuer.jwkSetUri());
+            try {
+                int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                exitCode = run(options, issuer, URI.create("http://localhost:" + port));
+            } finally {
+                context.close();
+            }
+        }
+        System.exit(exitCode);
+    }
+
+    private static int run(Options options, StubJwtIssuer issuer, URI baseUri) throws Exception {
+        Map<String, LatencyRecorder.Stats> stats = measure(options, issuer, baseUri, 0);
+        print("", stats, options);
+        int failures = errors(stats, options);
+
+        if (options.burst > 0) {
+            Map<String, LatencyRecorder.Stats> burstStats = measure(options, issuer, baseUri, options.burst);
+            print(String.format(Locale.ROOT, " while %d clients generate batches", options.burst), burstStats, options);
+            failures += errors(burstStats, options);
+            for (String endpoint : NON_GENERATING) {
+                LatencyRecorder.Stats calm = stats.get(endpoint);
+                LatencyRecorder.Stats burst = burstStats.get(endpoint);
+                if (calm != null && burst != null && burst.p95Millis() > calm.p95Millis() * (1 + options.tolerance)) {
+                    System.out.printf(Locale.ROOT, "FAILED %s: p95 %.1f ms during the burst exceeds %.1f ms without it by more than %.0f%%%n",
+                            endpoint, burst.p95Millis(), calm.p95Millis(), options.tolerance * 100);
+                    failures++;
+                }
+            }
+        }
+
+        Baseline baseline = new Baseline(options.baseline);
+        if (options.recordBaseline) {
+            baseline.write(stats, "p95 latency in milliseconds per endpoint, concurrency " + options.concurrency);
+            System.out.println("Wrote the baseline to " + options.baseline);
+        } else if (baseline.isEmpty()) {
+            System.out.println("FAILED No baseline in " + options.baseline + ", record one with record-baseline=true");
+            failures++;
+        } else {
+            for (String regression : baseline.regressions(stats, options.tolerance)) {
+                System.out.println("FAILED " + regression);
+                failures++;
+            }
+        }
+        return failures == 0 ? 0 : 1;
+    }
+
+    /**
+     * Runs the virtual users, and the burst clients if there are any, through one warmup and measurement.
+     *
+     * @return The statistics of the measurement per endpoint.
+     */
+    private static Map<String, LatencyRecorder.Stats> measure(Options options, StubJwtIssuer issuer, URI baseUri,
+                                                             int burstClients) throws Exception {
+        LatencyRecorder recorder = new LatencyRecorder();
+        long start = System.nanoTime();
+        long measureStart = start + options.warmup.toNanos();
+        long end = measureStart + options.duration.toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(executor)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            List<Future<?>> users = new ArrayList<>();
+            for (int i = 0; i < options.concurrency; i++) {
+                VirtualUser user = new VirtualUser(client, baseUri, issuer.token("loadtest-user-" + i, TOKEN_VALIDITY),
+                        options.difficulty, new SplittableRandom(i), recorder, measureStart);
+                users.add(executor.submit(() -> user.run(end)));
+            }
+            for (int i = 0; i < burstClients; i++) {
+                VirtualUser burst = new VirtualUser(client, baseUri, issuer.token("loadtest-burst-" + i, TOKEN_VALIDITY),
+                        options.difficulty, new SplittableRandom(i), recorder, measureStart);
+                users.add(executor.submit(() -> burst.generateBatches(end, options.burstCount)));
+            }
+            for (Future<?> user : users) {
+                user.get();
+            }
+        }
+        return recorder.stats(options.duration.toMillis() / 1000.0);
+    }
+
+    /**
+     * Reports every endpoint with more failed requests than allowed.
+     *
+     * @return The number of such endpoints.
+     */
+    private static int errors(Map<String, LatencyRecorder.Stats> stats, Options options) {
+        int failures = 0;
+        for (Map.Entry<String, LatencyRecorder.Stats> entry : stats.entrySet()) {
+            LatencyRecorder.Stats s = entry.getValue();
+            if (s.count() > 0 && (double) s.errors() / s.count() > options.maxErrorRate) {
+                System.out.printf(Locale.ROOT, "FAILED %s: %d of %d requests failed%n", entry.getKey(), s.errors(), s.count());
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    private static void print(String phase, Map<String, LatencyRecorder.Stats> stats, Options options) {
+        System.out.printf(Locale.ROOT, "%n%d users%s, %ds measured after %ds warmup%n", options.concurrency, phase,
+                options.duration.toSeconds(), options.warmup.toSeconds());
+        System.out.printf(Locale.ROOT, "%-14s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p95 ms", "p99 ms", "max ms");
+        stats.forEach((endpoint, s) -> System.out.printf(Locale.ROOT, "%-14s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                endpoint, s.count(), s.errors(), s.throughput(), s.p50Millis(), s.p90Millis(), s.p95Millis(),
+                s.p99Millis(), s.maxMillis()));
+    }
+
+    /**
+     * @param concurrency    The number of virtual users sending requests at the same time.
+     * @param warmup         The time before the measurement starts.
+     * @param duration       The measured time.
+     * @param difficulty     The difficulty of the generated puzzles.
+     * @param baseline       The properties file with the p95 latency per endpoint.
+     * @param tolerance      The allowed increase over the baseline as a fraction, e.g. 0.5 for 50%.
+     * @param maxErrorRate   The share of failed requests per endpoint that still passes.
+     * @param recordBaseline True to store the latencies of this run as the new baseline instead of comparing them.
+     * @param burst          The number of clients generating batches in the second phase, 0 for no second phase.
+     * @param burstCount     The number of puzzles per batch of the burst clients.
+     */
+    record Options(int concurrency, Duration warmup, Duration duration, String difficulty, Path baseline,
+                   double tolerance, double maxErrorRate, boolean recordBaseline, int burst, int burstCount) {
+        static Options parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (String arg : args) {
+                int separator = arg.indexOf('=');
+                if (separator < 0) {
+                    throw new IllegalArgumentException("Arguments must be key=value pairs but got " + arg);
+                }
+                values.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+            return new Options(
+                    Integer.parseInt(values.getOrDefault("concurrency", "32")),
+                    Duration.parse(values.getOrDefault("warmup", "PT15S")),
+                    Duration.parse(values.getOrDefault("duration", "PT30S")),
+                    values.getOrDefault("difficulty", "MEDIUM"),
+                    Path.of(values.getOrDefault("baseline", "src/loadtest/resources/loadtest-baseline.properties")),
+                    Double.parseDouble(values.getOrDefault("tolerance", "0.5")),
+                    Double.parseDouble(values.getOrDefault("max-error-rate", "0.01")),
+                    Boolean.parseBoolean(values.getOrDefault("record-baseline", "false")),
+                    Integer.parseInt(values.getOrDefault("burst", "0")),
+                    Integer.parseInt(values.getOrDefault("burst-count", "50")));
+        }
+    }
+
+    /**
+     * One player with its own token and saved game.
+     */
+    private static final class VirtualUser {
+        private final HttpClient client;
+        private final URI baseUri;
+        private final String token;
+        private final String difficulty;
+        private final SplittableRandom random;
+        private final LatencyRecorder recorder;
+        private final long measureStart;
+        private ObjectNode game;
+        private String settingsETag;
+
+        private VirtualUser(HttpClient client, URI baseUri, String token, String difficulty, SplittableRandom random,
+                            LatencyRecorder recorder, long measureStart) {
+            this.client = client;
+            this.baseUri = baseUri;
+            this.token = token;
+            this.difficulty = difficulty;
+            this.random = random;
+            this.recorder = recorder;
+            this.measureStart = measureStart;
+        }
+
+        private Void run(long end) throws InterruptedException {
+            while (System.nanoTime() < end) {
+                if (game == null) {
+                    startGame();
+                    continue;
+                }
+                int action = random.nextInt(100);
+                if (action < 40) {
+                    saveProgress();
+                } else if (action < 60) {
+                    continueGame();
+                } else if (action < 80) {
+                    loadSettings();
+                } else if (action < 90) {
+                    saveSettings();
+                } else {
+                    // Looking at a new puzzle without starting it.
+                    send("generate", get("/sudoku/generate/" + difficulty), 200);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Requests batches of puzzles one after the other. Batches rejected because the generation queue is full are
+         * expected and retried after a short pause.
+         */
+        private Void generateBatches(long end, int count) throws InterruptedException {
+            while (System.nanoTime() < end) {
+                if (send("burst", get("/sudoku/generate/" + difficulty + "/batch?count=" + count), 200, 429) == null) {
+                    Thread.sleep(100);
+                }
+            }
+            return null;
+        }
+
+        private void startGame() throws InterruptedException {
+            JsonNode generated = send("generate", get("/sudoku/generate/" + difficulty), 200);
+            if (generated instanceof ObjectNode sudoku) {
+                JsonNode saved = send("save", post("/sudoku/save", sudoku), 200);
+                game = saved instanceof ObjectNode savedGame ? savedGame : null;
+            }
+        }
+
+        /**
+         * Enters the solution into one empty cell and saves the whole game.
+         */
+        private void saveProgress() throws InterruptedException {
+            ArrayNode clues = (ArrayNode) game.get("sudoku");
+            ArrayNode solution = (ArrayNode) game.get("solution");
+            if (clues == null || solution == null) {
+                game = null;
+                return;
+            }
+            if (!(game.get("progress") instanceof ArrayNode)) {
+                ArrayNode progress = game.putArray("progress");
+                for (int x = 0; x < clues.size(); x++) {
+                    ArrayNode row = progress.addArray();
+                    for (int y = 0; y < clues.size(); y++) {
+                        row.add(0);
+                    }
+                }
+            }
+            ArrayNode progress = (ArrayNode) game.get("progress");
+            int x = random.nextInt(clues.size());
+            int y = random.nextInt(clues.size());
+            if (clues.get(x).get(y).asInt() == 0) {
+                ((ArrayNode) progress.get(x)).set(y, solution.get(x).get(y).asInt());
+            }
+            game.put("elapsedTime", game.path("elapsedTime").asLong() + 1000);
+            JsonNode saved = send("save", post("/sudoku/save", game), 200);
+            if (saved instanceof ObjectNode savedGame) {
+                game = savedGame;
+            }
+        }
+
+        private void continueGame() throws InterruptedException {
+            JsonNode continued = send("continue", get("/sudoku/continue"), 200);
+            if (continued instanceof ObjectNode continuedGame) {
+                game = continuedGame;
+            }
+        }
+
+        private void loadSettings() throws InterruptedException {
+            HttpRequest.Builder request = get("/settings/load");
+            if (settingsETag != null) {
+                request.header("If-None-Match", settingsETag);
+            }
+            send("settings.load", request, 200, 304, 404);
+        }
+
+        private void saveSettings() throws InterruptedException {
+            ObjectNode settings = MAPPER.createObjectNode()
+                    .put("checkMistakes", random.nextBoolean())
+                    .put("checkDuplicates", random.nextBoolean())
+                    .put("highlightNumbers", random.nextBoolean())
+                    .put("backgroundHighlight", random.nextBoolean());
+            send("settings.save", post("/settings/save", settings), 200);
+        }
+
+        private HttpRequest.Builder get(String path) {
+            return HttpRequest.newBuilder(baseUri.resolve(path)).GET();
+        }
+
+        private HttpRequest.Builder post(String path, JsonNode body) {
+            return HttpRequest.newBuilder(baseUri.resolve(path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()));
+        }
+
+        /**
+         * Sends the request with the user's token and records its latency.
+         *
+         * @return The parsed body or null if the request failed or had no body.
+         */
+        private JsonNode send(String endpoint, HttpRequest.Builder request, int... expectedStatus)
+                throws InterruptedException {
+            request.header("Authorization", "Bearer " + token).timeout(Duration.ofSeconds(30));
+            long start = System.nanoTime();
+            HttpResponse<String> response = null;
+            try {
+                response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            } catch (IOException e) {
+                // Counted as an error below.
+            }
+            long nanos = System.nanoTime() - start;
+            boolean expected = false;
+            for (int status : expectedStatus) {
+                expected |= response != null && response.statusCode() == status;
+            }
+            if (start >= measureStart) {
+                recorder.record(endpoint, nanos, !expected);
+            }
+            if (!expected) {
+                return null;
+            }
+            response.headers().firstValue("ETag").ifPresent(eTag -> {
+                if (endpoint.startsWith("settings")) {
+                    settingsETag = eTag;
+                }
+            });
+            try {
+                return response.body().isEmpty() ? null : MAPPER.readTree(response.body());
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.sudoku.backend.loadtest;
+
+import com.sudoku.backend.security.CachingPolicyEnforcerFilter;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Duration;
+
+/**
+ * Beans which replace the ones that need a running Keycloak. Registered as an additional source of the application
+ * in the loadtest profile, which allows them to override the beans of the same name.
+ * <p>
+ * Deliberately not a {@code @Configuration}, so the component scan of the application does not pick it up.
+ */
+public class LoadTestStandIns {
+    /**
+     * Grants every authenticated request instead of asking Keycloak for the permissions. The caching filter itself
+     * stays in the chain, so its overhead is part of the measurement.
+     */
+    @Bean
+    CachingPolicyEnforcerFilter policyEnforcerFilter() {
+        return new CachingPolicyEnforcerFilter((request, response, chain) -> chain.doFilter(request, response), null,
+                false, 10_000, Duration.ofMinutes(5));
+    }
+}
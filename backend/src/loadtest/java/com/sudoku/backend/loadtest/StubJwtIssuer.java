@@ -0,0 +1,80 @@
+package com.sudoku.backend.loadtest;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Stands in for Keycloak as the token issuer: signs tokens with a generated RSA key and serves the public key as a
+ * JWK set on a local port, so the backend validates the tokens exactly like the ones of the real issuer.
+ */
+public class StubJwtIssuer implements AutoCloseable {
+    private static final String ISSUER = "http://localhost/realms/sudoku";
+
+    private final RSAKey key;
+    private final HttpServer server;
+
+    public StubJwtIssuer() throws IOException, JOSEException {
+        key = new RSAKeyGenerator(2048).keyID("loadtest").generate();
+        byte[] jwkSet = new JWKSet(key.toPublicJWK()).toString().getBytes(StandardCharsets.UTF_8);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/certs", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, jwkSet.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(jwkSet);
+            }
+        });
+        server.start();
+    }
+
+    /**
+     * The URI the backend loads the JWK set from.
+     */
+    public URI jwkSetUri() {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + "/certs");
+    }
+
+    /**
+     * Issues a signed token for the user which stays valid for the given time.
+     */
+    public String token(String subject, Duration validity) {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(ISSUER)
+                .subject(subject)
+                .claim("preferred_username", subject)
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(validity)))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        try {
+            jwt.sign(new RSASSASigner(key));
+        } catch (JOSEException e) {
+            throw new IllegalStateException(e);
+        }
+        return jwt.serialize();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
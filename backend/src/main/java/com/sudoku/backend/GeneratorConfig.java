@@ -0,0 +1,27 @@
+package com.sudoku.backend;
+
+import com.sudoku.backend.generator.DancingLinksCounter;
+import com.sudoku.backend.generator.SolutionCounter;
+import com.sudoku.backend.generator.SudokuSolver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Configuration
+public class GeneratorConfig {
+
+    /**
+     * Selects the implementation used for the uniqueness checks of the generator.
+     * "bitmask" uses the backtracking {@link SudokuSolver}, "dlx" uses {@link DancingLinksCounter}.
+     */
+    @Bean
+    @Primary
+    public SolutionCounter solutionCounter(@Value("${sudoku.generator.solution-counter:bitmask}") String type, SudokuSolver solver) {
+        return switch (type.toLowerCase()) {
+            case "bitmask" -> solver;
+            case "dlx" -> new DancingLinksCounter();
+            default -> throw new IllegalArgumentException("Unknown solution counter: " + type);
+        };
+    }
+}
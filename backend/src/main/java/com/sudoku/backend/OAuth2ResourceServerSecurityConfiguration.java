@@ -2,16 +2,24 @@ package com.sudoku.backend;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.sudoku.backend.security.CachingJwtDecoder;
+import com.sudoku.backend.security.CachingPolicyEnforcerFilter;
+import com.sudoku.backend.security.LocalPolicyEvaluator;
+import com.sudoku.backend.security.PrefetchingJwkSource;
 import org.keycloak.adapters.authorization.integration.jakarta.ServletPolicyEnforcerFilter;
 import org.keycloak.adapters.authorization.spi.ConfigurationResolver;
 import org.keycloak.adapters.authorization.spi.HttpRequest;
 import org.keycloak.representations.adapters.config.PolicyEnforcerConfig;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.web.SecurityFilterChain;
@@ -20,6 +28,8 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
 import java.util.List;
 
 import static org.springframework.security.config.Customizer.withDefaults;
@@ -32,31 +42,55 @@ public class OAuth2ResourceServerSecurityConfiguration {
     String jwkSetUri;
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, CachingPolicyEnforcerFilter policyEnforcerFilter) throws Exception {
         http.
                 cors(withDefaults())
                 .authorizeHttpRequests((authorize) -> authorize
                         .requestMatchers("/sudoku/submissions").permitAll()
+                        .requestMatchers("/sudoku/submissions/**").permitAll()
                         .requestMatchers("/sudoku/generate/*").permitAll()
+                        .requestMatchers("/sudoku/daily/**").permitAll()
+                        // Only reachable through the management port, which listens on the loopback interface.
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
                         .anyRequest().authenticated()
                 )
                 .oauth2ResourceServer((oauth2) -> oauth2
                         .jwt(withDefaults())
                 )
-                .addFilterAfter(createPolicyEnforcerFilter(), BearerTokenAuthenticationFilter.class);
+                .addFilterAfter(policyEnforcerFilter, BearerTokenAuthenticationFilter.class);
         return http.build();
     }
 
-    private ServletPolicyEnforcerFilter createPolicyEnforcerFilter() {
-        PolicyEnforcerConfig config;
+    @Bean
+    CachingPolicyEnforcerFilter policyEnforcerFilter(@Value("${sudoku.authorization.local-evaluation:false}") boolean localEvaluation,
+                                                     @Value("${sudoku.authorization.cache.maximum-size:10000}") long maximumSize,
+                                                     @Value("${sudoku.authorization.cache.ttl:5m}") Duration ttl) {
+        PolicyEnforcerConfig config = loadPolicyEnforcerConfig();
+        return new CachingPolicyEnforcerFilter(createPolicyEnforcerFilter(config), new LocalPolicyEvaluator(config),
+                localEvaluation, maximumSize, ttl);
+    }
+
+    /**
+     * The policy enforcer must only run inside the security filter chain, not a second time as a servlet filter.
+     */
+    @Bean
+    FilterRegistrationBean<CachingPolicyEnforcerFilter> policyEnforcerFilterRegistration(CachingPolicyEnforcerFilter filter) {
+        FilterRegistrationBean<CachingPolicyEnforcerFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
 
+    private PolicyEnforcerConfig loadPolicyEnforcerConfig() {
         try {
             ObjectMapper mapper = new ObjectMapper();
             mapper.setSerializationInclusion(JsonInclude.Include.NON_DEFAULT);
-            config = mapper.readValue(getClass().getResourceAsStream("/policy-enforcer.json"), PolicyEnforcerConfig.class);
+            return mapper.readValue(getClass().getResourceAsStream("/policy-enforcer.json"), PolicyEnforcerConfig.class);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+    }
+
+    private ServletPolicyEnforcerFilter createPolicyEnforcerFilter(PolicyEnforcerConfig config) {
         return new ServletPolicyEnforcerFilter(new ConfigurationResolver() {
             @Override
             public PolicyEnforcerConfig resolve(HttpRequest request) {
@@ -66,8 +100,27 @@ public class OAuth2ResourceServerSecurityConfiguration {
     }
 
     @Bean
-    JwtDecoder jwtDecoder() {
-        return NimbusJwtDecoder.withJwkSetUri(this.jwkSetUri).build();
+    PrefetchingJwkSource jwkSource(@Value("${sudoku.jwt.jwk-set.refresh-interval:5m}") Duration refreshInterval,
+                                   @Value("${sudoku.jwt.jwk-set.stale-window:1h}") Duration staleWindow,
+                                   @Value("${sudoku.jwt.jwk-set.min-refetch-interval:30s}") Duration minRefetchInterval,
+                                   @Value("${sudoku.jwt.jwk-set.fetch-timeout:5s}") Duration fetchTimeout,
+                                   @Value("${sudoku.jwt.jwk-set.max-concurrent-fetches:1}") int maxConcurrentFetches) {
+        PrefetchingJwkSource jwkSource = new PrefetchingJwkSource(URI.create(this.jwkSetUri), refreshInterval,
+                staleWindow, minRefetchInterval, fetchTimeout, maxConcurrentFetches);
+        jwkSource.start();
+        return jwkSource;
+    }
+
+    @Bean
+    CachingJwtDecoder jwtDecoder(PrefetchingJwkSource jwkSource,
+                                 @Value("${sudoku.jwt.token-cache.maximum-size:10000}") long maximumSize,
+                                 @Value("${sudoku.jwt.token-cache.max-ttl:10m}") Duration maxTtl) {
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource));
+        // Claims are validated by the decoder's default validators, same as with NimbusJwtDecoder.withJwkSetUri.
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        return new CachingJwtDecoder(new NimbusJwtDecoder(jwtProcessor), maximumSize, maxTtl);
     }
 
     @Bean
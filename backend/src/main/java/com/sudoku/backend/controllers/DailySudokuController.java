@@ -0,0 +1,86 @@
+package com.sudoku.backend.controllers;
+
+import com.sudoku.backend.jpa.entities.DailySudoku;
+import com.sudoku.backend.jpa.entities.Sudoku;
+import com.sudoku.backend.services.DailySudokuService;
+import com.sudoku.backend.services.SudokuService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("sudoku/daily")
+@CrossOrigin(origins = "http://localhost:8081")
+public class DailySudokuController {
+    // The puzzle of a given date never changes once it exists.
+    private static final CacheControl PAST_DAY_CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+    private final DailySudokuService service;
+
+    public DailySudokuController(DailySudokuService service) {
+        this.service = service;
+    }
+
+    @GetMapping("{difficulty}")
+    public ResponseEntity<Sudoku> getToday(@PathVariable String difficulty, WebRequest request) {
+        try {
+            DailySudoku daily = service.getToday(SudokuService.Difficulty.valueOf(difficulty.toUpperCase()));
+            // Shared caches may keep today's puzzle until the rollover, when the URL starts to mean the next one.
+            Duration untilRollover = Duration.between(Instant.now(), service.rollover(daily.getDay()));
+            CacheControl cacheControl = CacheControl.maxAge(untilRollover.isNegative() ? Duration.ZERO : untilRollover).cachePublic();
+            return respond(daily, cacheControl, request);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RejectedExecutionException e) {
+            return generationBusy();
+        }
+    }
+
+    @GetMapping("{difficulty}/{day}")
+    public ResponseEntity<Sudoku> getDay(@PathVariable String difficulty, @PathVariable String day, WebRequest request) {
+        try {
+            DailySudoku daily = service.get(LocalDate.parse(day), SudokuService.Difficulty.valueOf(difficulty.toUpperCase()));
+            if (daily == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return respond(daily, PAST_DAY_CACHE_CONTROL, request);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RejectedExecutionException e) {
+            return generationBusy();
+        }
+    }
+
+    /**
+     * Answer for a puzzle of today which could not be generated yet because the generation queue is full.
+     */
+    private ResponseEntity<Sudoku> generationBusy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+
+    private ResponseEntity<Sudoku> respond(DailySudoku daily, CacheControl cacheControl, WebRequest request) {
+        // Not derived from the seed, which would give away the solution.
+        long lastModified = daily.getCreatedAt().toEpochMilli();
+        String eTag = "\"" + daily.getDay() + "-" + daily.getDifficulty() + "-" + Long.toHexString(lastModified) + "\"";
+        if (request.checkNotModified(eTag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .lastModified(lastModified)
+                .cacheControl(cacheControl)
+                .body(daily.toSudoku());
+    }
+}
@@ -0,0 +1,134 @@
+package com.sudoku.backend.controllers;
+
+import com.sudoku.backend.services.DailySudokuService;
+import com.sudoku.backend.services.Leaderboard;
+import com.sudoku.backend.services.SubmissionService;
+import com.sudoku.backend.services.SudokuService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("sudoku/submissions")
+@CrossOrigin(origins = "http://localhost:8081")
+public class SubmissionController {
+    private static final int MAX_TOP = 100;
+    private final SubmissionService service;
+    private final DailySudokuService dailySudokuService;
+
+    public SubmissionController(SubmissionService service, DailySudokuService dailySudokuService) {
+        this.service = service;
+        this.dailySudokuService = dailySudokuService;
+    }
+
+    /**
+     * Starts the clock of the signed-in player for today's daily puzzle, the time of the submission is measured from
+     * here.
+     */
+    @PostMapping("{difficulty}/start")
+    public ResponseEntity<Start> start(@AuthenticationPrincipal Jwt jwt, @PathVariable String difficulty) {
+        if (jwt == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            SudokuService.Difficulty diff = SudokuService.Difficulty.valueOf(difficulty.toUpperCase());
+            return ResponseEntity.of(Optional.of(new Start(dailySudokuService.today(), service.start(jwt.getSubject(), diff))));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Submits a solved daily puzzle of today. Anonymous players get their grid checked, but are not ranked. Signed-in
+     * players must have started the puzzle before, otherwise the answer is 409.
+     */
+    @PostMapping
+    public ResponseEntity<SubmissionService.Result> submit(@AuthenticationPrincipal Jwt jwt, @RequestBody SubmissionRequest request) {
+        if (request.difficulty() == null || request.sudoku() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            LocalDate day = request.day() != null ? LocalDate.parse(request.day()) : dailySudokuService.today();
+            SudokuService.Difficulty difficulty = SudokuService.Difficulty.valueOf(request.difficulty().toUpperCase());
+            String userId = jwt != null ? jwt.getSubject() : null;
+            String playerName = jwt != null && jwt.getClaimAsString("preferred_username") != null
+                    ? jwt.getClaimAsString("preferred_username") : userId;
+            SubmissionService.Result result = service.submit(userId, playerName, day, difficulty, request.sudoku(),
+                    request.errorCount());
+            if (result != null) {
+                return ResponseEntity.of(Optional.of(result));
+            }
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+    }
+
+    @GetMapping("{difficulty}")
+    public ResponseEntity<List<Leaderboard.Ranked>> getTop(@PathVariable String difficulty,
+                                                           @RequestParam(required = false) String day,
+                                                           @RequestParam(defaultValue = "10") int k) {
+        if (k < 1 || k > MAX_TOP) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            LocalDate date = day != null ? LocalDate.parse(day) : dailySudokuService.today();
+            return ResponseEntity.of(Optional.of(service.top(date, SudokuService.Difficulty.valueOf(difficulty.toUpperCase()), k)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("{difficulty}/me")
+    public ResponseEntity<Leaderboard.Ranked> getOwn(@AuthenticationPrincipal Jwt jwt, @PathVariable String difficulty,
+                                                     @RequestParam(required = false) String day) {
+        if (jwt == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            LocalDate date = day != null ? LocalDate.parse(day) : dailySudokuService.today();
+            Leaderboard.Ranked ranked = service.get(date, SudokuService.Difficulty.valueOf(difficulty.toUpperCase()), jwt.getSubject());
+            if (ranked != null) {
+                return ResponseEntity.of(Optional.of(ranked));
+            }
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * @param day    The day of the daily puzzle as yyyy-mm-dd, null for today. Other days than today are rejected.
+     * @param sudoku The solved grid.
+     */
+    public record SubmissionRequest(String day, String difficulty, int[][] sudoku, int errorCount) {
+    }
+
+    /**
+     * @param day       The day of the started daily puzzle.
+     * @param startedAt The start the time of the submission is measured from.
+     */
+    public record Start(LocalDate day, Instant startedAt) {
+    }
+}
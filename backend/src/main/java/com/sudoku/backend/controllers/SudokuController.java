@@ -1,9 +1,23 @@
 package com.sudoku.backend.controllers;
 
+import com.sudoku.backend.generator.HintEngine;
+import com.sudoku.backend.generator.models.Grid;
 import com.sudoku.backend.jpa.entities.Sudoku;
+import com.sudoku.backend.jpa.projections.SavedGameSummary;
+import com.sudoku.backend.services.BatchGenerator;
+import com.sudoku.backend.services.GenerationExecutor;
+import com.sudoku.backend.services.GenerationJobService;
+import com.sudoku.backend.services.MoveLogService;
+import com.sudoku.backend.services.PuzzleExporter;
+import com.sudoku.backend.services.PuzzlePool;
 import com.sudoku.backend.services.SudokuService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -14,25 +28,96 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
 
 @RestController
 @RequestMapping("sudoku")
 @CrossOrigin(origins = "http://localhost:8081")
 public class SudokuController {
     private static final Logger log = LogManager.getLogger(SudokuController.class);
+    // How many more puzzles are taken for a signed-in user whose saved games contain the puzzle already.
+    private static final int UNPLAYED_ATTEMPTS = 3;
     private final SudokuService service;
+    private final PuzzlePool puzzlePool;
+    private final BatchGenerator batchGenerator;
+    private final GenerationJobService generationJobs;
+    private final GenerationExecutor generationExecutor;
+    private final PuzzleExporter puzzleExporter;
+    private final HintEngine hintEngine;
 
-    public SudokuController(SudokuService service) {
+    public SudokuController(SudokuService service, PuzzlePool puzzlePool, BatchGenerator batchGenerator,
+                            GenerationJobService generationJobs, GenerationExecutor generationExecutor,
+                            PuzzleExporter puzzleExporter, HintEngine hintEngine) {
         this.service = service;
+        this.puzzlePool = puzzlePool;
+        this.batchGenerator = batchGenerator;
+        this.generationJobs = generationJobs;
+        this.generationExecutor = generationExecutor;
+        this.puzzleExporter = puzzleExporter;
+        this.hintEngine = hintEngine;
     }
 
+    /**
+     * Answer for requests whose generation was rejected because the generation queue is full.
+     */
+    private <T> ResponseEntity<T> tooManyRequests() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(generationExecutor.getRetryAfter().toSeconds(), 1)))
+                .build();
+    }
+
+    /**
+     * Serves a new puzzle. 9x9 puzzles come from the pool, larger grids are generated for the request.
+     *
+     * @param boxSize The size of a box of the grid: 3 for 9x9, 4 for 16x16 and 5 for 25x25.
+     */
     @GetMapping("/generate/{difficulty}")
-    public ResponseEntity<Sudoku> getSudokuById(@PathVariable String difficulty) {
+    public ResponseEntity<Sudoku> getSudokuById(@AuthenticationPrincipal Jwt jwt, @PathVariable String difficulty,
+                                                @RequestParam(defaultValue = "3") int boxSize) {
+        try {
+            if (boxSize != Grid.MIN_BOX_SIZE) {
+                return ResponseEntity.of(Optional.of(
+                        generationExecutor.call(() -> service.generateByDifficulty(difficulty, boxSize))));
+            }
+            Sudoku sudoku = puzzlePool.take(difficulty);
+            Set<Long> played = jwt != null ? service.getPlayedHashes(jwt.getSubject()) : Set.of();
+            for (int i = 0; i < UNPLAYED_ATTEMPTS && SudokuService.isPlayed(played, sudoku); i++) {
+                sudoku = puzzlePool.take(difficulty);
+            }
+            return ResponseEntity.of(Optional.of(sudoku));
+        }
+        catch (RejectedExecutionException e) {
+            return tooManyRequests();
+        }
+        catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        catch (Exception e) {
+            log.error(e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/generate/{difficulty}/batch")
+    public ResponseEntity<List<Sudoku>> getSudokuBatch(@PathVariable String difficulty, @RequestParam int count) {
+        if (count < 1 || count > batchGenerator.getMaxCount()) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
-            return ResponseEntity.of(Optional.of(service.generateByDifficulty(difficulty)));
+            return ResponseEntity.of(Optional.of(batchGenerator.generate(difficulty, count)));
+        }
+        catch (RejectedExecutionException e) {
+            return tooManyRequests();
         }
         catch (Exception e) {
             log.error(e);
@@ -40,9 +125,109 @@ public class SudokuController {
         }
     }
 
+    @GetMapping(value = "export/{difficulty}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportSudokus(@PathVariable String difficulty, @RequestParam int count,
+                                                               @RequestParam(required = false) Long seed,
+                                                               @RequestParam(defaultValue = "json") String format) {
+        if (count < 1 || count > puzzleExporter.getMaxCount() || !(format.equals("json") || format.equals("compact"))) {
+            return ResponseEntity.badRequest().build();
+        }
+        SudokuService.Difficulty diff;
+        try {
+            diff = SudokuService.Difficulty.valueOf(difficulty.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        long exportSeed = seed != null ? seed : ThreadLocalRandom.current().nextLong();
+        boolean compact = format.equals("compact");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> puzzleExporter.export(diff, count, exportSeed, compact, out));
+    }
+
+    @PostMapping("jobs")
+    public ResponseEntity<GenerationJobService.JobStatus> submitGenerationJob(@AuthenticationPrincipal Jwt jwt,
+                                                                             @RequestParam String difficulty,
+                                                                             @RequestParam(required = false) Long deadlineMillis) {
+        try {
+            GenerationJobService.JobStatus job = generationJobs.submit(jwt.getSubject(), difficulty,
+                    deadlineMillis != null ? Duration.ofMillis(deadlineMillis) : null);
+            return ResponseEntity.accepted().location(URI.create("/sudoku/jobs/" + job.id())).body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RejectedExecutionException e) {
+            return tooManyRequests();
+        }
+    }
+
+    @GetMapping("jobs/{id}")
+    public ResponseEntity<GenerationJobService.JobStatus> getGenerationJob(@AuthenticationPrincipal Jwt jwt, @PathVariable String id) {
+        GenerationJobService.JobStatus job = generationJobs.getStatus(jwt.getSubject(), id);
+        if (job != null) {
+            return ResponseEntity.of(Optional.of(job));
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Serves the puzzle of a finished job like a puzzle generated for the request, 409 while the job has none.
+     */
+    @GetMapping("jobs/{id}/sudoku")
+    public ResponseEntity<Sudoku> getGenerationJobSudoku(@AuthenticationPrincipal Jwt jwt, @PathVariable String id) {
+        GenerationJobService.JobStatus job = generationJobs.getStatus(jwt.getSubject(), id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Sudoku sudoku = generationJobs.getSudoku(jwt.getSubject(), id);
+        if (sudoku != null) {
+            return ResponseEntity.of(Optional.of(sudoku));
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    @DeleteMapping("jobs/{id}")
+    public ResponseEntity<GenerationJobService.JobStatus> cancelGenerationJob(@AuthenticationPrincipal Jwt jwt, @PathVariable String id) {
+        GenerationJobService.JobStatus job = generationJobs.cancel(jwt.getSubject(), id);
+        if (job != null) {
+            return ResponseEntity.of(Optional.of(job));
+        }
+        return ResponseEntity.notFound().build();
+    }
+
     @GetMapping("continue")
     public ResponseEntity<Sudoku> getSudokuToContinue(@AuthenticationPrincipal Jwt jwt) {
-        Sudoku sudoku = service.getSudokuToContinue(jwt.getSubject());
+        try {
+            Sudoku sudoku = service.getSudokuToContinue(jwt.getSubject());
+            if(sudoku != null) {
+                return ResponseEntity.of(Optional.of(sudoku));
+            }
+            return ResponseEntity.notFound().build();
+        } catch (RejectedExecutionException e) {
+            return tooManyRequests();
+        }
+    }
+
+    @GetMapping("games")
+    public ResponseEntity<PagedModel<SavedGameSummary>> listGames(@AuthenticationPrincipal Jwt jwt, Pageable pageable) {
+        return ResponseEntity.of(Optional.of(new PagedModel<>(service.listGames(jwt.getSubject(), pageable))));
+    }
+
+    @GetMapping("games/{id}")
+    public ResponseEntity<Sudoku> getGame(@AuthenticationPrincipal Jwt jwt, @PathVariable int id) {
+        try {
+            Sudoku sudoku = service.getGame(jwt.getSubject(), id);
+            if(sudoku != null) {
+                return ResponseEntity.of(Optional.of(sudoku));
+            }
+            return ResponseEntity.notFound().build();
+        } catch (RejectedExecutionException e) {
+            return tooManyRequests();
+        }
+    }
+
+    @DeleteMapping("games/{id}")
+    public ResponseEntity<Sudoku> deleteGame(@AuthenticationPrincipal Jwt jwt, @PathVariable int id) {
+        Sudoku sudoku = service.deleteGame(jwt.getSubject(), id);
         if(sudoku != null) {
             return ResponseEntity.of(Optional.of(sudoku));
         }
@@ -54,12 +239,70 @@ public class SudokuController {
         try {
             Sudoku savedSudoku = service.saveForUser(jwt.getSubject(), sudoku);
             return ResponseEntity.of(Optional.of(savedSudoku));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RejectedExecutionException e) {
+            return tooManyRequests();
+        } catch (Exception e) {
+            log.error(e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @PostMapping("save/delta")
+    public ResponseEntity<Void> saveDeltaForUser(@AuthenticationPrincipal Jwt jwt, @RequestBody MoveLogService.Delta delta) {
+        try {
+            if (service.saveDeltaForUser(jwt.getSubject(), delta)) {
+                return ResponseEntity.noContent().build();
+            }
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RejectedExecutionException e) {
+            return tooManyRequests();
         } catch (Exception e) {
             log.error(e);
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    @PostMapping("move")
+    public ResponseEntity<MoveResult> checkMove(@AuthenticationPrincipal Jwt jwt, @RequestBody Move move) {
+        try {
+            Boolean correct = service.checkMove(jwt.getSubject(), move.sudokuId(), move.x(), move.y(), move.value());
+            if (correct != null) {
+                return ResponseEntity.of(Optional.of(new MoveResult(correct)));
+            }
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RejectedExecutionException e) {
+            return tooManyRequests();
+        }
+    }
+
+    @PostMapping("hint")
+    public ResponseEntity<HintEngine.Hint> getHint(@RequestBody GridRequest request) {
+        try {
+            HintEngine.Hint hint = hintEngine.nextStep(request.sudoku());
+            if (hint != null) {
+                return ResponseEntity.of(Optional.of(hint));
+            }
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("candidates")
+    public ResponseEntity<int[][]> getCandidates(@RequestBody GridRequest request) {
+        try {
+            return ResponseEntity.of(Optional.of(hintEngine.candidates(request.sudoku())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @DeleteMapping("cancel")
     public ResponseEntity<Sudoku> cancelSudokuToContinue(@AuthenticationPrincipal Jwt jwt) {
         Sudoku sudoku = service.cancelSudokuToContinue(jwt.getSubject());
@@ -68,4 +311,19 @@ public class SudokuController {
         }
         return ResponseEntity.notFound().build();
     }
+
+    /**
+     * @param sudokuId The id of the saved game the move is made in.
+     */
+    public record Move(int sudokuId, int x, int y, int value) {
+    }
+
+    public record MoveResult(boolean correct) {
+    }
+
+    /**
+     * @param sudoku The current grid, 0 for empty cells.
+     */
+    public record GridRequest(int[][] sudoku) {
+    }
 }
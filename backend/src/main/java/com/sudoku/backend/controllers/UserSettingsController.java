@@ -4,6 +4,8 @@ import com.sudoku.backend.jpa.entities.UserSettings;
 import com.sudoku.backend.services.UserSettingsService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -13,6 +15,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.Optional;
 
@@ -21,6 +24,8 @@ import java.util.Optional;
 @CrossOrigin(origins = "http://localhost:8081")
 public class UserSettingsController {
     private static final Logger log = LogManager.getLogger(UserSettingsController.class);
+    // Browsers may keep the settings, but have to revalidate them with the ETag on every load.
+    private static final CacheControl SETTINGS_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
     private final UserSettingsService service;
 
     public UserSettingsController(UserSettingsService service) {
@@ -28,11 +33,15 @@ public class UserSettingsController {
     }
 
     @GetMapping("load")
-    public ResponseEntity<UserSettings> loadUserSettings(@AuthenticationPrincipal Jwt jwt) {
+    public ResponseEntity<UserSettings> loadUserSettings(@AuthenticationPrincipal Jwt jwt, WebRequest request) {
         try {
             UserSettings settings = service.getSettings(jwt.getSubject());
             if (settings != null) {
-                return ResponseEntity.of(Optional.of(settings));
+                String eTag = "\"" + settings.getId() + "-" + settings.getVersion() + "\"";
+                if (request.checkNotModified(eTag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(SETTINGS_CACHE_CONTROL).build();
+                }
+                return ResponseEntity.ok().eTag(eTag).cacheControl(SETTINGS_CACHE_CONTROL).body(settings);
             }
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -0,0 +1,236 @@
+package com.sudoku.backend.generator;
+
+import com.sudoku.backend.generator.models.Grid;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Maps a puzzle to the representative of all puzzles it can be turned into by a {@link GridTransform}, so equivalent
+ * puzzles share one canonical form and hash.
+ * <p>
+ * A puzzle with a unique solution is equivalent to another one exactly if their pairs of puzzle and solution are, so
+ * the representative is taken from the pairs: it is the transformation whose relabeled solution, with every cell
+ * marked as clue or empty, is lexicographically smallest. The values are relabeled in the order they appear in the
+ * first row, so after the first row the labels are fixed. The grid is built row by row: every arrangement which is
+ * still tied for the smallest prefix is extended by each row it may place next, and only the arrangements with the
+ * smallest next row are kept. Following the solution instead of the clues alone keeps the number of tied
+ * arrangements small, because the full rows of the solution tell almost all arrangements apart.
+ */
+public final class Canonicalizer {
+    private static final int SIZE = SudokuSolver.SIZE;
+    private static final int CELLS = SudokuSolver.CELLS;
+    private static final int BOX_SIZE = 3;
+    private static final int[][] PERMUTATIONS = {{0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}};
+    // All column orders which keep the columns within their stack, 6^4 of them.
+    private static final int[][] COLUMN_ORDERS = new int[1296][SIZE];
+
+    static {
+        int order = 0;
+        for (int[] stacks : PERMUTATIONS) {
+            for (int[] first : PERMUTATIONS) {
+                for (int[] second : PERMUTATIONS) {
+                    for (int[] third : PERMUTATIONS) {
+                        int[][] within = {first, second, third};
+                        for (int stack = 0; stack < BOX_SIZE; stack++) {
+                            for (int i = 0; i < BOX_SIZE; i++) {
+                                COLUMN_ORDERS[order][stack * BOX_SIZE + i] = stacks[stack] * BOX_SIZE + within[stack][i];
+                            }
+                        }
+                        order++;
+                    }
+                }
+            }
+        }
+    }
+
+    private Canonicalizer() {}
+
+    /**
+     * Returns the canonical form of the puzzle in row order, with the values relabeled and 0 for empty cells.
+     *
+     * @param puzzle   The clues.
+     * @param solution The unique solution of the puzzle.
+     * @throws IllegalArgumentException If the solution has empty cells or does not match the clues.
+     */
+    public static byte[] canonicalize(Grid puzzle, Grid solution) {
+        // Every cell is stored as value * 2 + 1 if it is empty in the puzzle, transposed in the second grid.
+        int[][] grids = new int[2][CELLS];
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                int value = solution.get(x, y);
+                int clue = puzzle.get(x, y);
+                if (value == 0 || (clue != 0 && clue != value)) {
+                    throw new IllegalArgumentException("The solution does not match the puzzle at (" + x + ", " + y + ")");
+                }
+                int cell = value * 2 + (clue == 0 ? 1 : 0);
+                grids[0][x * SIZE + y] = cell;
+                grids[1][y * SIZE + x] = cell;
+            }
+        }
+
+        // The first row is always labeled 1 to 9 from left to right, so only its empty cells tell arrangements apart.
+        // The smallest first row packs the clues to the left, so it comes from a row whose stacks hold the most clues
+        // when sorted by their clue count, and only these rows need to be tried with every column order.
+        int firstRowKey = -1;
+        for (int[] grid : grids) {
+            for (int r = 0; r < SIZE; r++) {
+                firstRowKey = Math.max(firstRowKey, firstRowKey(grid, r));
+            }
+        }
+        int[] best = new int[SIZE];
+        int[] row = new int[SIZE];
+        Arrays.fill(best, Integer.MAX_VALUE);
+        List<Arrangement> tied = new ArrayList<>();
+        for (int[] grid : grids) {
+            for (int r = 0; r < SIZE; r++) {
+                if (firstRowKey(grid, r) != firstRowKey) {
+                    continue;
+                }
+                for (int[] cols : COLUMN_ORDERS) {
+                    for (int y = 0; y < SIZE; y++) {
+                        row[y] = (y + 1) * 2 + (grid[r * SIZE + cols[y]] & 1);
+                    }
+                    int cmp = compare(row, best);
+                    if (cmp < 0) {
+                        tied.clear();
+                        System.arraycopy(row, 0, best, 0, SIZE);
+                    }
+                    if (cmp <= 0) {
+                        tied.add(Arrangement.first(grid, cols, r));
+                    }
+                }
+            }
+        }
+
+        byte[] canonical = new byte[CELLS];
+        write(canonical, 0, best);
+        for (int position = 1; position < SIZE; position++) {
+            List<Arrangement> next = new ArrayList<>();
+            Arrays.fill(best, Integer.MAX_VALUE);
+            for (Arrangement arrangement : tied) {
+                int rows = arrangement.nextRows(position);
+                for (int r = 0; r < SIZE; r++) {
+                    if ((rows & (1 << r)) == 0) {
+                        continue;
+                    }
+                    arrangement.label(r, row);
+                    int cmp = compare(row, best);
+                    if (cmp < 0) {
+                        next.clear();
+                        System.arraycopy(row, 0, best, 0, SIZE);
+                    }
+                    if (cmp <= 0) {
+                        next.add(arrangement.place(r));
+                    }
+                }
+            }
+            write(canonical, position, best);
+            tied = next;
+        }
+        return canonical;
+    }
+
+    /**
+     * Returns a 64-bit hash of the canonical form, the same for all equivalent puzzles.
+     *
+     * @throws IllegalArgumentException If the solution has empty cells or does not match the clues.
+     */
+    public static long hash(Grid puzzle, Grid solution) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonicalize(puzzle, solution));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the clue counts of the stacks of the row, sorted in descending order, as one number.
+     */
+    private static int firstRowKey(int[] grid, int r) {
+        int[] counts = new int[BOX_SIZE];
+        for (int y = 0; y < SIZE; y++) {
+            counts[y / BOX_SIZE] += 1 - (grid[r * SIZE + y] & 1);
+        }
+        Arrays.sort(counts);
+        return (counts[2] * 4 + counts[1]) * 4 + counts[0];
+    }
+
+    private static void write(byte[] canonical, int position, int[] row) {
+        for (int y = 0; y < SIZE; y++) {
+            canonical[position * SIZE + y] = (byte) ((row[y] & 1) != 0 ? 0 : row[y] >> 1);
+        }
+    }
+
+    private static int compare(int[] a, int[] b) {
+        for (int i = 0; i < SIZE; i++) {
+            if (a[i] != b[i]) {
+                return a[i] < b[i] ? -1 : 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * The rows placed so far under a fixed column order and the labels given to the values by the first row.
+     */
+    private static final class Arrangement {
+        private final int[] grid;
+        private final int[] cols;
+        private final int[] labels;
+        private final int usedRows;
+        private final int lastRow;
+
+        private Arrangement(int[] grid, int[] cols, int[] labels, int usedRows, int lastRow) {
+            this.grid = grid;
+            this.cols = cols;
+            this.labels = labels;
+            this.usedRows = usedRows;
+            this.lastRow = lastRow;
+        }
+
+        private static Arrangement first(int[] grid, int[] cols, int r) {
+            int[] labels = new int[SIZE + 1];
+            for (int y = 0; y < SIZE; y++) {
+                labels[grid[r * SIZE + cols[y]] >> 1] = y + 1;
+            }
+            return new Arrangement(grid, cols, labels, 1 << r, r);
+        }
+
+        /**
+         * Returns the rows which may be placed at the position as a bitmask: the remaining rows of the current band,
+         * or the rows of all unused bands when a new band starts.
+         */
+        private int nextRows(int position) {
+            if (position % BOX_SIZE != 0) {
+                return (0b111 << (lastRow / BOX_SIZE * BOX_SIZE)) & ~usedRows;
+            }
+            int candidates = 0;
+            for (int band = 0; band < SIZE; band += BOX_SIZE) {
+                if ((usedRows & (0b111 << band)) == 0) {
+                    candidates |= 0b111 << band;
+                }
+            }
+            return candidates;
+        }
+
+        /**
+         * Writes the relabeled row into out, every cell as label * 2 + 1 if it is empty in the puzzle.
+         */
+        private void label(int r, int[] out) {
+            for (int y = 0; y < SIZE; y++) {
+                int cell = grid[r * SIZE + cols[y]];
+                out[y] = labels[cell >> 1] * 2 + (cell & 1);
+            }
+        }
+
+        private Arrangement place(int r) {
+            return new Arrangement(grid, cols, labels, usedRows | (1 << r), r);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.sudoku.backend.generator;
+
+import com.sudoku.backend.generator.models.Grid;
+
+/**
+ * Solution counter based on Knuth's Algorithm X with dancing links.
+ * <p>
+ * A sudoku is an exact cover problem with one candidate row per cell and value (729 for a 9x9 grid) and four
+ * constraint columns per cell (each cell filled, each value once per row, column and subgrid). A {@link Session}
+ * builds the linked matrix once and keeps it for its whole lifetime. Clues are only remembered as values; they are
+ * covered right before a search and uncovered afterwards, so removing or restoring a clue between two counts is a
+ * single array write.
+ * <p>
+ * The matrix is stored in flat int arrays instead of node objects to keep it compact and cache friendly.
+ * <p>
+ * A count can be given a node budget. A count which runs out of it stops like an interrupted one and reports the
+ * limit, so a uniqueness check which takes too long does not pass. This bounds the time of a check on large grids,
+ * where a few of them would otherwise take seconds.
+ */
+public class DancingLinksCounter implements SolutionCounter {
+    // The search looks at the interrupt flag once every this many plus one nodes.
+    private static final int INTERRUPT_CHECK_MASK = 0xFF;
+
+    private final long nodeBudget;
+
+    public DancingLinksCounter() {
+        this(Long.MAX_VALUE);
+    }
+
+    /**
+     * @param nodeBudget The number of search nodes a single count may visit.
+     */
+    public DancingLinksCounter(long nodeBudget) {
+        this.nodeBudget = nodeBudget;
+    }
+
+    @Override
+    public int countSolutions(int[][] grid, int limit) {
+        return open(grid).countSolutions(limit);
+    }
+
+    @Override
+    public Session open(int[][] grid) {
+        return new Matrix(grid, nodeBudget);
+    }
+
+    static final class Matrix implements Session {
+        private static final int ROOT = 0;
+
+        private final SudokuSolver.Geometry geometry;
+        private final int columns;
+        // Node 0 is the root, nodes 1..columns are the column headers, then four nodes per candidate row.
+        private final int[] left;
+        private final int[] right;
+        private final int[] up;
+        private final int[] down;
+        private final int[] column;
+        private final int[] sizes;
+        private final boolean[] covered;
+        private final int[] clues;
+        private final int[] applied;
+        private final long nodeBudget;
+        private long nodes;
+        private long nodeLimit;
+
+        /**
+         * @throws IllegalArgumentException If the grid does not have a supported size.
+         */
+        Matrix(int[][] grid, long nodeBudget) {
+            this.nodeBudget = nodeBudget;
+            geometry = SudokuSolver.Geometry.of(Grid.boxSizeOf(grid.length));
+            int size = geometry.size;
+            int cells = geometry.cells;
+            columns = cells * 4;
+            left = new int[1 + columns + cells * size * 4];
+            right = new int[left.length];
+            up = new int[left.length];
+            down = new int[left.length];
+            column = new int[left.length];
+            sizes = new int[1 + columns];
+            covered = new boolean[1 + columns];
+            clues = new int[cells];
+            applied = new int[cells];
+
+            for (int c = 0; c <= columns; c++) {
+                left[c] = c == 0 ? columns : c - 1;
+                right[c] = c == columns ? 0 : c + 1;
+                up[c] = c;
+                down[c] = c;
+                column[c] = c;
+            }
+
+            int node = columns + 1;
+            for (int cell = 0; cell < cells; cell++) {
+                int x = geometry.row[cell];
+                int y = geometry.col[cell];
+                int box = geometry.box[cell];
+                for (int digit = 0; digit < size; digit++) {
+                    int first = node;
+                    appendNode(node++, 1 + cell);
+                    appendNode(node++, 1 + cells + x * size + digit);
+                    appendNode(node++, 1 + 2 * cells + y * size + digit);
+                    appendNode(node++, 1 + 3 * cells + box * size + digit);
+                    for (int i = 0; i < 4; i++) {
+                        left[first + i] = first + (i + 3) % 4;
+                        right[first + i] = first + (i + 1) % 4;
+                    }
+                }
+            }
+
+            for (int cell = 0; cell < cells; cell++) {
+                if (grid[geometry.row[cell]].length != size) {
+                    throw new IllegalArgumentException("Row " + geometry.row[cell] + " needs " + size + " cells");
+                }
+                clues[cell] = grid[geometry.row[cell]][geometry.col[cell]];
+            }
+        }
+
+        @Override
+        public void removeClue(int cellX, int cellY) {
+            clues[cellX * geometry.size + cellY] = 0;
+        }
+
+        @Override
+        public void restoreClue(int cellX, int cellY, int value) {
+            clues[cellX * geometry.size + cellY] = value;
+        }
+
+        @Override
+        public int countSolutions(int limit) {
+            int appliedCount = 0;
+            boolean consistent = true;
+            for (int cell = 0; cell < clues.length && consistent; cell++) {
+                int value = clues[cell];
+                if (value == 0) {
+                    continue;
+                }
+                int first = rowNode(cell, value);
+                if (value < 0 || value > geometry.size || !canSelect(first)) {
+                    consistent = false;
+                } else {
+                    select(first);
+                    applied[appliedCount++] = first;
+                }
+            }
+
+            nodeLimit = nodes + Math.min(nodeBudget, Long.MAX_VALUE - nodes);
+            int solutions = consistent ? search(limit) : 0;
+
+            while (appliedCount > 0) {
+                deselect(applied[--appliedCount]);
+            }
+            return solutions;
+        }
+
+        @Override
+        public long nodeCount() {
+            return nodes;
+        }
+
+        private int search(int limit) {
+            if (right[ROOT] == ROOT) {
+                return 1;
+            }
+
+            // Continue with the constraint that has the fewest candidates left.
+            int best = right[ROOT];
+            for (int c = right[best]; c != ROOT && sizes[best] > 1; c = right[c]) {
+                if (sizes[c] < sizes[best]) {
+                    best = c;
+                }
+            }
+            if (sizes[best] == 0) {
+                return 0;
+            }
+            if (nodes >= nodeLimit || (nodes & INTERRUPT_CHECK_MASK) == 0 && Thread.currentThread().isInterrupted()) {
+                return limit;
+            }
+
+            int solutions = 0;
+            cover(best);
+            for (int r = down[best]; r != best && solutions < limit; r = down[r]) {
+                nodes++;
+                for (int j = right[r]; j != r; j = right[j]) {
+                    cover(column[j]);
+                }
+                solutions += search(limit - solutions);
+                for (int j = left[r]; j != r; j = left[j]) {
+                    uncover(column[j]);
+                }
+            }
+            uncover(best);
+            return solutions;
+        }
+
+        private void appendNode(int node, int col) {
+            column[node] = col;
+            up[node] = up[col];
+            down[node] = col;
+            down[up[col]] = node;
+            up[col] = node;
+            sizes[col]++;
+        }
+
+        private int rowNode(int cell, int value) {
+            return columns + 1 + (cell * geometry.size + value - 1) * 4;
+        }
+
+        private boolean canSelect(int first) {
+            for (int i = 0; i < 4; i++) {
+                if (covered[column[first + i]]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void select(int first) {
+            for (int i = 0; i < 4; i++) {
+                cover(column[first + i]);
+            }
+        }
+
+        private void deselect(int first) {
+            for (int i = 3; i >= 0; i--) {
+                uncover(column[first + i]);
+            }
+        }
+
+        private void cover(int col) {
+            covered[col] = true;
+            right[left[col]] = right[col];
+            left[right[col]] = left[col];
+            for (int i = down[col]; i != col; i = down[i]) {
+                for (int j = right[i]; j != i; j = right[j]) {
+                    down[up[j]] = down[j];
+                    up[down[j]] = up[j];
+                    sizes[column[j]]--;
+                }
+            }
+        }
+
+        private void uncover(int col) {
+            for (int i = up[col]; i != col; i = up[i]) {
+                for (int j = left[i]; j != i; j = left[j]) {
+                    sizes[column[j]]++;
+                    down[up[j]] = j;
+                    up[down[j]] = j;
+                }
+            }
+            right[left[col]] = col;
+            left[right[col]] = col;
+            covered[col] = false;
+        }
+    }
+}
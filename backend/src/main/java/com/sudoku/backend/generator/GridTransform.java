@@ -0,0 +1,72 @@
+package com.sudoku.backend.generator;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A transformation of a 9x9 grid which keeps every valid puzzle valid and its solution unique: relabeling the digits,
+ * permuting the rows within their band and the columns within their stack, permuting the bands and the stacks, and
+ * transposing. Applying the same transformation to a puzzle and its solution keeps them matching, and the number of
+ * clues stays the same.
+ *
+ * @param digits    The new value of every value, indexed by the old one. Index 0 maps to 0, so empty cells stay empty.
+ * @param rows      The source row of every row of the result.
+ * @param cols      The source column of every column of the result.
+ * @param transpose True if the grid is transposed before the rows and columns are taken from it.
+ */
+public record GridTransform(int[] digits, int[] rows, int[] cols, boolean transpose) {
+    private static final int SIZE = SudokuSolver.SIZE;
+    private static final int BOX_SIZE = 3;
+
+    /**
+     * Draws one of the 9! * 6^8 * 2 transformations.
+     */
+    public static GridTransform random(RandomGenerator random) {
+        int[] digits = new int[SIZE + 1];
+        for (int v = 1; v <= SIZE; v++) {
+            digits[v] = v;
+        }
+        shuffle(digits, 1, SIZE, random);
+        return new GridTransform(digits, lines(random), lines(random), random.nextBoolean());
+    }
+
+    /**
+     * Returns the transformed copy of the grid, the grid itself is not modified.
+     */
+    public int[][] apply(int[][] grid) {
+        int[][] result = new int[SIZE][SIZE];
+        for (int x = 0; x < SIZE; x++) {
+            int row = rows[x];
+            for (int y = 0; y < SIZE; y++) {
+                int col = cols[y];
+                result[x][y] = digits[transpose ? grid[col][row] : grid[row][col]];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Builds an order of rows or columns which only moves them within their band and moves whole bands.
+     */
+    private static int[] lines(RandomGenerator random) {
+        int[] bands = {0, 1, 2};
+        shuffle(bands, 0, BOX_SIZE, random);
+        int[] lines = new int[SIZE];
+        int[] offsets = {0, 1, 2};
+        for (int band = 0; band < BOX_SIZE; band++) {
+            shuffle(offsets, 0, BOX_SIZE, random);
+            for (int i = 0; i < BOX_SIZE; i++) {
+                lines[band * BOX_SIZE + i] = bands[band] * BOX_SIZE + offsets[i];
+            }
+        }
+        return lines;
+    }
+
+    private static void shuffle(int[] values, int from, int length, RandomGenerator random) {
+        for (int i = length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = values[from + i];
+            values[from + i] = values[from + j];
+            values[from + j] = tmp;
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.sudoku.backend.generator;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Computes the candidates of a partially filled 9x9 grid and finds the next value that can be placed from them.
+ * <p>
+ * Candidates are bitmasks like in the {@link SudokuSolver}: bit {@code v - 1} is set when value {@code v} can still be
+ * placed in a cell. Placements are searched as naked single, then hidden single, so the simplest one is returned. If
+ * neither applies, the eliminations of a locked candidate are applied to the candidates and the search starts over,
+ * until a single is found or no locked candidate eliminates anything anymore.
+ * <p>
+ * The working arrays are taken from a small pool and returned after every call. Requests run on virtual threads, so
+ * per-thread buffers would be allocated anew for nearly every request; the pool keeps a call free of allocations
+ * apart from its result.
+ */
+@Component
+public class HintEngine {
+    private static final int SIZE = SudokuSolver.SIZE;
+    private static final int CELLS = SudokuSolver.CELLS;
+    private static final int ALL = SudokuSolver.ALL;
+
+    // The cells of the 9 rows, then the 9 columns, then the 9 subgrids.
+    private static final int[][] UNITS = new int[3 * SIZE][SIZE];
+
+    static {
+        for (int i = 0; i < CELLS; i++) {
+            int row = SudokuSolver.ROW[i];
+            int col = SudokuSolver.COL[i];
+            int box = SudokuSolver.BOX[i];
+            UNITS[row][col] = i;
+            UNITS[SIZE + col][row] = i;
+            UNITS[2 * SIZE + box][(row % 3) * 3 + col % 3] = i;
+        }
+    }
+
+    private final BlockingQueue<Workspace> workspaces = new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors() * 2);
+
+    public enum Technique {
+        NAKED_SINGLE,
+        HIDDEN_SINGLE,
+        LOCKED_CANDIDATE
+    }
+
+    /**
+     * A deduced step. For singles, cells holds the one cell which has to be value. For locked candidates, cells holds
+     * the cells from which value can be eliminated.
+     *
+     * @param cells        Pairs of {@code [x, y]}.
+     * @param eliminations The locked candidates a single depends on, in the order they were applied; empty if the
+     *                     single follows from the candidates of the grid alone.
+     */
+    public record Hint(Technique technique, int value, int[][] cells, List<Hint> eliminations) {
+        public Hint(Technique technique, int value, int[][] cells) {
+            this(technique, value, cells, List.of());
+        }
+    }
+
+    /**
+     * Computes the candidates of every cell.
+     *
+     * @param grid The grid, 0 for empty cells. It is not modified.
+     * @param out  Receives the candidate bitmask of every cell in row order, 0 for filled cells.
+     * @throws IllegalArgumentException If the grid is not 9x9, contains values outside of 0 to 9 or a value twice in a
+     *                                  row, column or subgrid.
+     */
+    public void candidates(int[][] grid, int[] out) {
+        Workspace workspace = acquire();
+        try {
+            workspace.load(grid);
+            System.arraycopy(workspace.candidates, 0, out, 0, CELLS);
+        } finally {
+            release(workspace);
+        }
+    }
+
+    /**
+     * Computes the candidates of every cell as {@code [x][y]} bitmasks, 0 for filled cells.
+     *
+     * @throws IllegalArgumentException If the grid is invalid, see {@link #candidates(int[][], int[])}.
+     */
+    public int[][] candidates(int[][] grid) {
+        int[][] result = new int[SIZE][SIZE];
+        Workspace workspace = acquire();
+        try {
+            workspace.load(grid);
+            for (int i = 0; i < CELLS; i++) {
+                result[SudokuSolver.ROW[i]][SudokuSolver.COL[i]] = workspace.candidates[i];
+            }
+        } finally {
+            release(workspace);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the next value that can be placed, applying locked candidates until a single shows up.
+     *
+     * @param grid The grid, 0 for empty cells. It is not modified.
+     * @return A naked or hidden single, with the locked candidates it depends on, or null if the techniques cannot
+     * place any value.
+     * @throws IllegalArgumentException If the grid is invalid, see {@link #candidates(int[][], int[])}.
+     */
+    public Hint nextStep(int[][] grid) {
+        Workspace workspace = acquire();
+        try {
+            workspace.load(grid);
+            int[] candidates = workspace.candidates;
+            List<Hint> eliminations = null;
+            while (true) {
+                Hint hint = nakedSingle(candidates);
+                if (hint == null) {
+                    hint = hiddenSingle(candidates);
+                }
+                if (hint != null) {
+                    return eliminations == null ? hint
+                            : new Hint(hint.technique(), hint.value(), hint.cells(), List.copyOf(eliminations));
+                }
+                // Every locked candidate removes at least one candidate, so the loop ends.
+                Hint locked = lockedCandidate(candidates);
+                if (locked == null) {
+                    return null;
+                }
+                int bit = 1 << (locked.value() - 1);
+                for (int[] cell : locked.cells()) {
+                    candidates[cell[0] * SIZE + cell[1]] &= ~bit;
+                }
+                if (eliminations == null) {
+                    eliminations = new ArrayList<>();
+                }
+                eliminations.add(locked);
+            }
+        } finally {
+            release(workspace);
+        }
+    }
+
+    private static Hint nakedSingle(int[] candidates) {
+        for (int i = 0; i < CELLS; i++) {
+            int mask = candidates[i];
+            if (mask != 0 && (mask & (mask - 1)) == 0) {
+                return single(Technique.NAKED_SINGLE, i, mask);
+            }
+        }
+        return null;
+    }
+
+    private static Hint hiddenSingle(int[] candidates) {
+        for (int[] unit : UNITS) {
+            int once = 0;
+            int twice = 0;
+            for (int cell : unit) {
+                twice |= once & candidates[cell];
+                once |= candidates[cell];
+            }
+            int hidden = once & ~twice;
+            if (hidden != 0) {
+                int bit = hidden & -hidden;
+                for (int cell : unit) {
+                    if ((candidates[cell] & bit) != 0) {
+                        return single(Technique.HIDDEN_SINGLE, cell, bit);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Looks for a value whose candidates in one unit all lie in the intersection with a second unit, so the value can
+     * be eliminated from the rest of the second unit. Subgrids are checked against rows and columns (pointing) and
+     * rows and columns against subgrids (claiming).
+     */
+    private static Hint lockedCandidate(int[] candidates) {
+        for (int unit = 0; unit < UNITS.length; unit++) {
+            for (int bit = 1; bit <= ALL; bit <<= 1) {
+                int rows = 0;
+                int cols = 0;
+                int boxes = 0;
+                for (int cell : UNITS[unit]) {
+                    if ((candidates[cell] & bit) != 0) {
+                        rows |= 1 << SudokuSolver.ROW[cell];
+                        cols |= 1 << SudokuSolver.COL[cell];
+                        boxes |= 1 << SudokuSolver.BOX[cell];
+                    }
+                }
+                if (rows == 0) {
+                    continue;
+                }
+                Hint hint = null;
+                if (unit >= 2 * SIZE) {
+                    if (Integer.bitCount(rows) == 1) {
+                        hint = eliminate(candidates, UNITS[Integer.numberOfTrailingZeros(rows)], UNITS[unit], bit);
+                    }
+                    if (hint == null && Integer.bitCount(cols) == 1) {
+                        hint = eliminate(candidates, UNITS[SIZE + Integer.numberOfTrailingZeros(cols)], UNITS[unit], bit);
+                    }
+                } else if (Integer.bitCount(boxes) == 1) {
+                    hint = eliminate(candidates, UNITS[2 * SIZE + Integer.numberOfTrailingZeros(boxes)], UNITS[unit], bit);
+                }
+                if (hint != null) {
+                    return hint;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Builds the hint eliminating the value from all cells of the target unit outside the source unit.
+     *
+     * @return The hint or null if there is nothing to eliminate.
+     */
+    private static Hint eliminate(int[] candidates, int[] target, int[] source, int bit) {
+        int count = 0;
+        for (int cell : target) {
+            if ((candidates[cell] & bit) != 0 && !contains(source, cell)) {
+                count++;
+            }
+        }
+        if (count == 0) {
+            return null;
+        }
+        int[][] cells = new int[count][];
+        count = 0;
+        for (int cell : target) {
+            if ((candidates[cell] & bit) != 0 && !contains(source, cell)) {
+                cells[count++] = new int[]{SudokuSolver.ROW[cell], SudokuSolver.COL[cell]};
+            }
+        }
+        return new Hint(Technique.LOCKED_CANDIDATE, Integer.numberOfTrailingZeros(bit) + 1, cells);
+    }
+
+    private static boolean contains(int[] unit, int cell) {
+        for (int c : unit) {
+            if (c == cell) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Hint single(Technique technique, int cell, int bit) {
+        return new Hint(technique, Integer.numberOfTrailingZeros(bit) + 1,
+                new int[][]{{SudokuSolver.ROW[cell], SudokuSolver.COL[cell]}});
+    }
+
+    private Workspace acquire() {
+        Workspace workspace = workspaces.poll();
+        return workspace != null ? workspace : new Workspace();
+    }
+
+    private void release(Workspace workspace) {
+        workspaces.offer(workspace);
+    }
+
+    private static final class Workspace {
+        private final int[] rows = new int[SIZE];
+        private final int[] cols = new int[SIZE];
+        private final int[] boxes = new int[SIZE];
+        private final int[] candidates = new int[CELLS];
+
+        private void load(int[][] grid) {
+            if (grid == null || grid.length != SIZE) {
+                throw new IllegalArgumentException("A grid needs " + SIZE + " rows");
+            }
+            for (int x = 0; x < SIZE; x++) {
+                if (grid[x] == null || grid[x].length != SIZE) {
+                    throw new IllegalArgumentException("Row " + x + " needs " + SIZE + " cells");
+                }
+            }
+            for (int i = 0; i < SIZE; i++) {
+                rows[i] = 0;
+                cols[i] = 0;
+                boxes[i] = 0;
+            }
+            for (int i = 0; i < CELLS; i++) {
+                int value = grid[SudokuSolver.ROW[i]][SudokuSolver.COL[i]];
+                if (value == 0) {
+                    continue;
+                }
+                if (value < 0 || value > SIZE) {
+                    throw new IllegalArgumentException("Cell values must be between 0 and " + SIZE + " but got " + value);
+                }
+                int bit = 1 << (value - 1);
+                if (((rows[SudokuSolver.ROW[i]] | cols[SudokuSolver.COL[i]] | boxes[SudokuSolver.BOX[i]]) & bit) != 0) {
+                    throw new IllegalArgumentException("Value " + value + " appears twice in a row, column or subgrid");
+                }
+                rows[SudokuSolver.ROW[i]] |= bit;
+                cols[SudokuSolver.COL[i]] |= bit;
+                boxes[SudokuSolver.BOX[i]] |= bit;
+            }
+            for (int i = 0; i < CELLS; i++) {
+                candidates[i] = grid[SudokuSolver.ROW[i]][SudokuSolver.COL[i]] != 0 ? 0
+                        : ~(rows[SudokuSolver.ROW[i]] | cols[SudokuSolver.COL[i]] | boxes[SudokuSolver.BOX[i]]) & ALL;
+            }
+        }
+    }
+}
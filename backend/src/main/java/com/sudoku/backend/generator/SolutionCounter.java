@@ -0,0 +1,48 @@
+package com.sudoku.backend.generator;
+
+/**
+ * Counts the solutions of a sudoku grid up to a limit.
+ * <p>
+ * The cell-removal loop of the generator checks uniqueness once per removed cell, so implementations can keep
+ * their state in a {@link Session} and only toggle single clues between two counts.
+ */
+public interface SolutionCounter {
+
+    /**
+     * Counts the solutions of the grid, but stops as soon as the limit is reached.
+     * If the calling thread is interrupted, the count stops early and reports the limit.
+     *
+     * @param grid  The sudoku grid. It is not modified.
+     * @param limit The maximum number of solutions to look for.
+     * @return The number of found solutions, at most limit.
+     */
+    int countSolutions(int[][] grid, int limit);
+
+    /**
+     * Starts a session on a copy of the grid whose clues can be removed and restored one at a time.
+     */
+    Session open(int[][] grid);
+
+    interface Session {
+        /**
+         * Clears the clue at the given cell.
+         */
+        void removeClue(int cellX, int cellY);
+
+        /**
+         * Sets the clue at the given cell again.
+         */
+        void restoreClue(int cellX, int cellY, int value);
+
+        /**
+         * Counts the solutions of the current clues, but stops as soon as the limit is reached.
+         * If the calling thread is interrupted, the count stops early and reports the limit.
+         */
+        int countSolutions(int limit);
+
+        /**
+         * Returns the number of search nodes visited by all counts of this session so far.
+         */
+        long nodeCount();
+    }
+}
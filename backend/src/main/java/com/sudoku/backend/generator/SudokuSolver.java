@@ -0,0 +1,371 @@
+package com.sudoku.backend.generator;
+
+import com.sudoku.backend.generator.models.Grid;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Constraint engine for sudoku grids with a box size of 3 to 5, i.e. 9x9, 16x16 and 25x25 grids. The size of a grid
+ * is taken from its number of rows.
+ * <p>
+ * Instead of rescanning the row, column and subgrid for every placement, the solver keeps one bitmask of used
+ * values per row, column and subgrid (bit {@code v - 1} is set when value {@code v} is used) and always continues
+ * with the free cell that has the fewest remaining candidates. The search state is kept in a per-thread
+ * {@link Board} which is reused between calls, so the recursion itself allocates nothing.
+ * <p>
+ * Grids are addressed the same way as everywhere else in the backend: {@code grid[x][y]} where x is the row.
+ */
+@Component
+public class SudokuSolver implements SolutionCounter {
+    public static final int SIZE = Grid.SIZE;
+    public static final int CELLS = SIZE * SIZE;
+    // Uniqueness checks look at the interrupt flag once every this many plus one nodes.
+    private static final int INTERRUPT_CHECK_MASK = 0xFF;
+    // The node budget per cell of the first run of a search with restarts.
+    private static final int RESTART_BUDGET_PER_CELL = 4;
+
+    private static final Geometry[] GEOMETRIES = new Geometry[Grid.MAX_BOX_SIZE + 1];
+
+    static {
+        for (int boxSize = Grid.MIN_BOX_SIZE; boxSize <= Grid.MAX_BOX_SIZE; boxSize++) {
+            GEOMETRIES[boxSize] = new Geometry(boxSize);
+        }
+    }
+
+    // The tables of 9x9 grids, which the 9x9-only helpers of this package use directly.
+    static final int ALL = GEOMETRIES[3].all;
+    static final int[] ROW = GEOMETRIES[3].row;
+    static final int[] COL = GEOMETRIES[3].col;
+    static final int[] BOX = GEOMETRIES[3].box;
+
+    // One board per box size, indexed by it.
+    private final ThreadLocal<Board[]> boards = ThreadLocal.withInitial(() -> new Board[Grid.MAX_BOX_SIZE + 1]);
+
+    /**
+     * Fills all free cells of the grid with a random valid solution.
+     *
+     * @param grid   The sudoku grid. It will resemble the solved sudoku if a solution exists, otherwise it is left untouched.
+     * @param random The source used to pick the order in which candidate values are tried.
+     * @return True if a solution was found or else false.
+     */
+    public boolean solve(int[][] grid, RandomGenerator random) {
+        Board board = board(grid);
+        if (!board.load(grid)) {
+            return false;
+        }
+        boolean solved;
+        if (board.geometry.boxSize == Grid.MIN_BOX_SIZE) {
+            board.nodeLimit = Long.MAX_VALUE;
+            solved = solve(board, 0, random);
+        } else {
+            solved = solveWithRestarts(board, random);
+        }
+        if (!solved) {
+            return false;
+        }
+        board.store(grid);
+        return true;
+    }
+
+    /**
+     * A random search on larger grids sometimes runs into a dead end which takes far longer to leave than to start
+     * over, so the search is restarted with new random values and a doubled node budget whenever the budget runs
+     * out. 9x9 grids are solved in a single run, which keeps the search order of seeded games unchanged.
+     */
+    private boolean solveWithRestarts(Board board, RandomGenerator random) {
+        for (long budget = (long) RESTART_BUDGET_PER_CELL * board.geometry.cells; ; budget *= 2) {
+            board.nodeLimit = board.nodes + budget;
+            if (solve(board, 0, random)) {
+                return true;
+            }
+            if (board.nodes < board.nodeLimit) {
+                // The whole search tree was visited within the budget, so there is no solution.
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Counts the solutions of the grid, but stops as soon as the limit is reached.
+     * If the calling thread is interrupted, the count stops early and reports the limit, so an interrupted
+     * uniqueness check never passes.
+     *
+     * @param grid  The sudoku grid. It is not modified.
+     * @param limit The maximum number of solutions to look for.
+     * @return The number of found solutions, at most limit.
+     */
+    @Override
+    public int countSolutions(int[][] grid, int limit) {
+        Board board = board(grid);
+        if (!board.load(grid)) {
+            return 0;
+        }
+        return count(board, 0, limit);
+    }
+
+    @Override
+    public Session open(int[][] grid) {
+        int[][] clues = new int[grid.length][];
+        for (int x = 0; x < grid.length; x++) {
+            clues[x] = grid[x].clone();
+        }
+        return new Session() {
+            private long nodes;
+
+            @Override
+            public void removeClue(int cellX, int cellY) {
+                clues[cellX][cellY] = 0;
+            }
+
+            @Override
+            public void restoreClue(int cellX, int cellY, int value) {
+                clues[cellX][cellY] = value;
+            }
+
+            @Override
+            public int countSolutions(int limit) {
+                long before = SudokuSolver.this.nodeCount();
+                int solutions = SudokuSolver.this.countSolutions(clues, limit);
+                nodes += SudokuSolver.this.nodeCount() - before;
+                return solutions;
+            }
+
+            @Override
+            public long nodeCount() {
+                return nodes;
+            }
+        };
+    }
+
+    /**
+     * Returns the number of search nodes (tried placements) the solver visited on the calling thread so far.
+     * The difference between two calls is the work done by the calls in between.
+     */
+    public long nodeCount() {
+        long nodes = 0;
+        for (Board board : boards.get()) {
+            if (board != null) {
+                nodes += board.nodes;
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Checks if the grid is completely filled and does not break any sudoku rule.
+     *
+     * @param grid The sudoku grid to validate.
+     * @return True if the grid is valid, false otherwise.
+     */
+    public boolean isGridValid(int[][] grid) {
+        Board board = board(grid);
+        return board.load(grid) && board.freeCount == 0;
+    }
+
+    /**
+     * Returns the board of the calling thread for the size of the grid.
+     *
+     * @throws IllegalArgumentException If the grid does not have a supported size.
+     */
+    private Board board(int[][] grid) {
+        int boxSize = Grid.boxSizeOf(grid.length);
+        Board[] perSize = boards.get();
+        if (perSize[boxSize] == null) {
+            perSize[boxSize] = new Board(GEOMETRIES[boxSize]);
+        }
+        return perSize[boxSize];
+    }
+
+    private boolean solve(Board board, int depth, RandomGenerator random) {
+        if (depth == board.freeCount) {
+            return true;
+        }
+        if (board.nodes >= board.nodeLimit) {
+            return false;
+        }
+        int cell = board.selectFree(depth);
+        int candidates = board.candidates(cell);
+
+        // Rotate through the candidates starting at a random value to get a different grid each time.
+        int size = board.geometry.size;
+        int start = random.nextInt(size);
+        for (int offset = 0; offset < size; offset++) {
+            int bit = 1 << ((start + offset) % size);
+            if ((candidates & bit) != 0) {
+                board.nodes++;
+                board.place(cell, bit);
+                if (solve(board, depth + 1, random)) {
+                    return true;
+                }
+                board.remove(cell, bit);
+            }
+        }
+        return false;
+    }
+
+    private int count(Board board, int depth, int limit) {
+        if (depth == board.freeCount) {
+            return 1;
+        }
+        if ((board.nodes & INTERRUPT_CHECK_MASK) == 0 && Thread.currentThread().isInterrupted()) {
+            return limit;
+        }
+        int cell = board.selectFree(depth);
+        int candidates = board.candidates(cell);
+
+        int solutions = 0;
+        while (candidates != 0 && solutions < limit) {
+            int bit = candidates & -candidates;
+            candidates ^= bit;
+            board.nodes++;
+            board.place(cell, bit);
+            solutions += count(board, depth + 1, limit - solutions);
+            board.remove(cell, bit);
+        }
+        return solutions;
+    }
+
+    /**
+     * The lookup tables of one grid size: the row, column and box of every cell index in row order.
+     */
+    static final class Geometry {
+        final int boxSize;
+        final int size;
+        final int cells;
+        final int all;
+        final int[] row;
+        final int[] col;
+        final int[] box;
+
+        private Geometry(int boxSize) {
+            this.boxSize = boxSize;
+            this.size = boxSize * boxSize;
+            this.cells = size * size;
+            this.all = (1 << size) - 1;
+            this.row = new int[cells];
+            this.col = new int[cells];
+            this.box = new int[cells];
+            for (int i = 0; i < cells; i++) {
+                row[i] = i / size;
+                col[i] = i % size;
+                box[i] = (row[i] / boxSize) * boxSize + col[i] / boxSize;
+            }
+        }
+
+        static Geometry of(int boxSize) {
+            return GEOMETRIES[boxSize];
+        }
+    }
+
+    /**
+     * Mutable search state. Values are stored as single bits, 0 marks a free cell.
+     */
+    static final class Board {
+        final Geometry geometry;
+        final int[] rows;
+        final int[] cols;
+        final int[] boxes;
+        final int[] cells;
+        final int[] free;
+        int freeCount;
+        long nodes;
+        // The search of a solution gives up once nodes reaches this limit.
+        long nodeLimit;
+
+        Board(Geometry geometry) {
+            this.geometry = geometry;
+            rows = new int[geometry.size];
+            cols = new int[geometry.size];
+            boxes = new int[geometry.size];
+            cells = new int[geometry.cells];
+            free = new int[geometry.cells];
+        }
+
+        /**
+         * Loads the grid into the board.
+         *
+         * @return False if a row has the wrong length, or a value is out of range or appears twice in a row, column
+         * or subgrid.
+         */
+        boolean load(int[][] grid) {
+            int[] row = geometry.row;
+            int[] col = geometry.col;
+            for (int[] cellsOfRow : grid) {
+                if (cellsOfRow == null || cellsOfRow.length != geometry.size) {
+                    return false;
+                }
+            }
+            Arrays.fill(rows, 0);
+            Arrays.fill(cols, 0);
+            Arrays.fill(boxes, 0);
+            freeCount = 0;
+            for (int i = 0; i < geometry.cells; i++) {
+                int value = grid[row[i]][col[i]];
+                if (value == 0) {
+                    cells[i] = 0;
+                    free[freeCount++] = i;
+                    continue;
+                }
+                if (value < 0 || value > geometry.size) {
+                    return false;
+                }
+                int bit = 1 << (value - 1);
+                if (((rows[row[i]] | cols[col[i]] | boxes[geometry.box[i]]) & bit) != 0) {
+                    return false;
+                }
+                place(i, bit);
+            }
+            return true;
+        }
+
+        void store(int[][] grid) {
+            for (int i = 0; i < geometry.cells; i++) {
+                grid[geometry.row[i]][geometry.col[i]] = Integer.numberOfTrailingZeros(cells[i]) + 1;
+            }
+        }
+
+        int candidates(int cell) {
+            return ~(rows[geometry.row[cell]] | cols[geometry.col[cell]] | boxes[geometry.box[cell]]) & geometry.all;
+        }
+
+        /**
+         * Moves the free cell with the fewest candidates to position depth of the free list.
+         *
+         * @return The index of the selected cell.
+         */
+        int selectFree(int depth) {
+            int best = depth;
+            int bestCount = geometry.size + 1;
+            for (int i = depth; i < freeCount; i++) {
+                int count = Integer.bitCount(candidates(free[i]));
+                if (count < bestCount) {
+                    best = i;
+                    bestCount = count;
+                    if (count <= 1) {
+                        break;
+                    }
+                }
+            }
+            int cell = free[best];
+            free[best] = free[depth];
+            free[depth] = cell;
+            return cell;
+        }
+
+        void place(int cell, int bit) {
+            cells[cell] = bit;
+            rows[geometry.row[cell]] |= bit;
+            cols[geometry.col[cell]] |= bit;
+            boxes[geometry.box[cell]] |= bit;
+        }
+
+        void remove(int cell, int bit) {
+            cells[cell] = 0;
+            rows[geometry.row[cell]] &= ~bit;
+            cols[geometry.col[cell]] &= ~bit;
+            boxes[geometry.box[cell]] &= ~bit;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.sudoku.backend.generator.models;
+
+import java.util.Arrays;
+
+/**
+ * Immutable sudoku grid of 9x9 cells or, for larger boards, of 16x16 or 25x25 cells. Cells are addressed as
+ * {@code [x][y]} where x is the row, 0 marks an empty cell.
+ */
+public final class Grid {
+    /**
+     * The size of a classic grid, which is what all grids are unless they are created with other dimensions.
+     */
+    public static final int SIZE = 9;
+    public static final int CELLS = SIZE * SIZE;
+    public static final int MIN_BOX_SIZE = 3;
+    public static final int MAX_BOX_SIZE = 5;
+
+    private final int size;
+    private final byte[] cells;
+
+    private Grid(int size, byte[] cells) {
+        this.size = size;
+        this.cells = cells;
+    }
+
+    /**
+     * Returns the box size of grids with the given number of rows.
+     *
+     * @throws IllegalArgumentException If no supported box size has this many rows.
+     */
+    public static int boxSizeOf(int size) {
+        for (int boxSize = MIN_BOX_SIZE; boxSize <= MAX_BOX_SIZE; boxSize++) {
+            if (boxSize * boxSize == size) {
+                return boxSize;
+            }
+        }
+        throw new IllegalArgumentException("A grid needs 9, 16 or 25 rows but got " + size);
+    }
+
+    /**
+     * Creates a grid from rows of cell values.
+     *
+     * @return The grid or null if rows is null.
+     * @throws IllegalArgumentException If the rows are not 9x9, 16x16 or 25x25 or contain values outside of 0 to the
+     *                                  number of rows.
+     */
+    public static Grid of(int[][] rows) {
+        if (rows == null) {
+            return null;
+        }
+        int size = rows.length;
+        boxSizeOf(size);
+        byte[] cells = new byte[size * size];
+        for (int x = 0; x < size; x++) {
+            if (rows[x] == null || rows[x].length != size) {
+                throw new IllegalArgumentException("Row " + x + " needs " + size + " cells");
+            }
+            for (int y = 0; y < size; y++) {
+                cells[x * size + y] = checkValue(rows[x][y], size);
+            }
+        }
+        return new Grid(size, cells);
+    }
+
+    /**
+     * Creates a grid from the cell values in row order.
+     */
+    public static Grid ofCells(byte[] cells) {
+        int size = (int) Math.sqrt(cells.length);
+        if (size * size != cells.length) {
+            throw new IllegalArgumentException("A grid needs a square number of cells but got " + cells.length);
+        }
+        boxSizeOf(size);
+        byte[] copy = new byte[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            copy[i] = checkValue(cells[i], size);
+        }
+        return new Grid(size, copy);
+    }
+
+    /**
+     * The number of rows, columns and values.
+     */
+    public int size() {
+        return size;
+    }
+
+    public int boxSize() {
+        return boxSizeOf(size);
+    }
+
+    public int cellCount() {
+        return cells.length;
+    }
+
+    public int get(int x, int y) {
+        return cells[x * size + y];
+    }
+
+    /**
+     * Returns the value of a cell by its index in row order.
+     */
+    public int get(int index) {
+        return cells[index];
+    }
+
+    public int[][] toArray() {
+        int[][] rows = new int[size][size];
+        for (int i = 0; i < cells.length; i++) {
+            rows[i / size][i % size] = cells[i];
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the grid as one digit per cell in row order, 0 for empty cells and letters from a on for values above 9.
+     */
+    public String toDigits() {
+        char[] digits = new char[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            digits[i] = Character.forDigit(cells[i], Character.MAX_RADIX);
+        }
+        return new String(digits);
+    }
+
+    private static byte checkValue(int value, int size) {
+        if (value < 0 || value > size) {
+            throw new IllegalArgumentException("Cell values must be between 0 and " + size + " but got " + value);
+        }
+        return (byte) value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Grid grid && Arrays.equals(cells, grid.cells);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(cells);
+    }
+}
@@ -0,0 +1,97 @@
+package com.sudoku.backend.jpa.converters;
+
+import com.sudoku.backend.generator.models.Grid;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Stores a 9x9 {@link Grid} as 41 bytes: two cells per byte (high nibble first) in row order.
+ * The first byte doubles as the header, its high nibble holds the format version and its low nibble the first cell.
+ * <p>
+ * Values of larger grids do not fit into a nibble. They are stored as a header byte, whose high nibble holds the
+ * format version and whose low nibble holds the box size, followed by one byte per cell in row order.
+ * <p>
+ * Rows written before this format existed contain a Java-serialized {@code ArrayList<int[]>}. They are recognized by
+ * the serialization magic number and are still read, the next save then writes them in the compact format.
+ */
+@Converter
+public class GridConverter implements AttributeConverter<Grid, byte[]> {
+    static final int VERSION = 1;
+    static final int LENGTH = (Grid.CELLS + 2) / 2;
+    static final int LARGE_VERSION = 2;
+
+    private static final int SERIALIZATION_MAGIC = 0xACED;
+    private static final ObjectInputFilter LEGACY_FILTER =
+            ObjectInputFilter.Config.createFilter("java.util.ArrayList;java.lang.Object;maxdepth=3;!*");
+
+    @Override
+    public byte[] convertToDatabaseColumn(Grid grid) {
+        if (grid == null) {
+            return null;
+        }
+        if (grid.size() != Grid.SIZE) {
+            byte[] data = new byte[1 + grid.cellCount()];
+            data[0] = (byte) (LARGE_VERSION << 4 | grid.boxSize());
+            for (int i = 0; i < grid.cellCount(); i++) {
+                data[1 + i] = (byte) grid.get(i);
+            }
+            return data;
+        }
+        byte[] data = new byte[LENGTH];
+        data[0] = (byte) (VERSION << 4 | grid.get(0));
+        for (int i = 1; i < Grid.CELLS; i += 2) {
+            data[(i + 1) / 2] = (byte) (grid.get(i) << 4 | grid.get(i + 1));
+        }
+        return data;
+    }
+
+    @Override
+    public Grid convertToEntityAttribute(byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (data.length >= 2 && ((data[0] & 0xFF) << 8 | data[1] & 0xFF) == SERIALIZATION_MAGIC) {
+            return readLegacy(data);
+        }
+        int version = (data[0] & 0xFF) >>> 4;
+        if (version == LARGE_VERSION) {
+            int boxSize = data[0] & 0x0F;
+            if (data.length != 1 + boxSize * boxSize * boxSize * boxSize) {
+                throw new IllegalArgumentException("Grid with box size " + boxSize + " has " + data.length + " bytes");
+            }
+            return Grid.ofCells(Arrays.copyOfRange(data, 1, data.length));
+        }
+        if (version != VERSION || data.length != LENGTH) {
+            throw new IllegalArgumentException("Unsupported grid format version " + version + " with " + data.length + " bytes");
+        }
+
+        byte[] cells = new byte[Grid.CELLS];
+        cells[0] = (byte) (data[0] & 0x0F);
+        for (int i = 1; i < Grid.CELLS; i++) {
+            int b = data[(i + 1) / 2];
+            cells[i] = (byte) (i % 2 == 1 ? (b >>> 4) & 0x0F : b & 0x0F);
+        }
+        return Grid.ofCells(cells);
+    }
+
+    private Grid readLegacy(byte[] data) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            in.setObjectInputFilter(LEGACY_FILTER);
+            List<?> rows = (List<?>) in.readObject();
+            int[][] grid = new int[rows.size()][];
+            for (int i = 0; i < grid.length; i++) {
+                grid[i] = (int[]) rows.get(i);
+            }
+            return Grid.of(grid);
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            throw new IllegalArgumentException("Could not read legacy grid", e);
+        }
+    }
+}
@@ -2,19 +2,28 @@ package com.sudoku.backend.jpa.entities;
 
 import jakarta.persistence.*;
 
+import java.time.Instant;
+
 @Entity
-@Table(name = "continue_later") // maybe @JoinTable would be useful
+@Table(name = "continue_later",
+        indexes = @Index(name = "idx_continue_later_user_id_last_modified", columnList = "userId, lastModified"),
+        // Concurrent saves of new games cannot take the same slot, which bounds the number of games per user.
+        uniqueConstraints = @UniqueConstraint(name = "uk_continue_later_user_id_slot", columnNames = {"userId", "slot"}))
 public class ContinueLater {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private int id;
     private String userId;
-    private Integer sudokuId;
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    @JoinColumn(name = "sudoku_id")
+    private Sudoku sudoku;
+    private Instant lastModified;
+    private Integer slot;
 
     public ContinueLater() {}
-    public ContinueLater(String userId, int sudokuId) {
+    public ContinueLater(String userId, int slot) {
         this.userId = userId;
-        this.sudokuId = sudokuId;
+        this.slot = slot;
     }
 
     public int getId() {
@@ -25,11 +34,23 @@ public class ContinueLater {
         return userId;
     }
 
-    public Integer getSudokuId() {
-        return sudokuId;
+    public Sudoku getSudoku() {
+        return sudoku;
+    }
+
+    public void setSudoku(Sudoku sudoku) {
+        this.sudoku = sudoku;
+    }
+
+    public Integer getSlot() {
+        return slot;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
     }
 
-    public void setSudokuId(Integer sudokuId) {
-        this.sudokuId = sudokuId;
+    public void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
     }
 }
@@ -0,0 +1,74 @@
+package com.sudoku.backend.jpa.entities;
+
+import com.sudoku.backend.generator.models.Grid;
+import com.sudoku.backend.jpa.converters.GridConverter;
+import com.sudoku.backend.services.SudokuService;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * The puzzle all players share on one day for one difficulty.
+ */
+@Entity
+@Table(name = "daily_sudoku", uniqueConstraints = @UniqueConstraint(name = "uk_daily_sudoku_day_difficulty", columnNames = {"day", "difficulty"}))
+public class DailySudoku {
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private int id;
+    private LocalDate day;
+    @Enumerated(EnumType.STRING)
+    private SudokuService.Difficulty difficulty;
+    private long seed;
+    @Convert(converter = GridConverter.class)
+    @Column(columnDefinition = "bytea")
+    private Grid sudoku;
+    @Convert(converter = GridConverter.class)
+    @Column(columnDefinition = "bytea")
+    private Grid solution;
+    private Instant createdAt;
+
+    public DailySudoku() {}
+
+    public DailySudoku(LocalDate day, Sudoku sudoku, Instant createdAt) {
+        this.day = day;
+        this.difficulty = sudoku.getDifficulty();
+        this.seed = sudoku.getSeed();
+        this.sudoku = sudoku.getSudokuGrid();
+        this.solution = sudoku.getSolutionGrid();
+        this.createdAt = createdAt;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public SudokuService.Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Grid getSolution() {
+        return solution;
+    }
+
+    /**
+     * Creates a new game of this puzzle. The game has no id yet, so saving it creates a new saved game.
+     * The solution and the seed are left out, since either gives away the answer of a ranked puzzle. A saved daily
+     * game is therefore stored with its clues only and its moves are not checked.
+     */
+    public Sudoku toSudoku() {
+        Sudoku game = new Sudoku();
+        game.setSudoku(sudoku.toArray());
+        game.setDifficulty(difficulty);
+        return game;
+    }
+}
@@ -0,0 +1,76 @@
+package com.sudoku.backend.jpa.entities;
+
+import com.sudoku.backend.services.SudokuService;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A correctly solved daily puzzle.
+ */
+@Entity
+@Table(name = "submission", indexes = @Index(name = "idx_submission_day_difficulty", columnList = "day, difficulty"))
+public class Submission {
+    // A pooled sequence instead of identity, so Hibernate can batch the inserts of the write-behind.
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "submission_seq")
+    @SequenceGenerator(name = "submission_seq", sequenceName = "submission_seq", allocationSize = 50)
+    private long id;
+    private LocalDate day;
+    @Enumerated(EnumType.STRING)
+    private SudokuService.Difficulty difficulty;
+    private String userId;
+    private String playerName;
+    private long elapsedTime;
+    private int errorCount;
+    private Instant submittedAt;
+
+    public Submission() {}
+    public Submission(LocalDate day, SudokuService.Difficulty difficulty, String userId, String playerName,
+                      long elapsedTime, int errorCount, Instant submittedAt) {
+        this.day = day;
+        this.difficulty = difficulty;
+        this.userId = userId;
+        this.playerName = playerName;
+        this.elapsedTime = elapsedTime;
+        this.errorCount = errorCount;
+        this.submittedAt = submittedAt;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public SudokuService.Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    public long getElapsedTime() {
+        return elapsedTime;
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+}
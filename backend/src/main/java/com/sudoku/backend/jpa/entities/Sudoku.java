@@ -1,12 +1,24 @@
 package com.sudoku.backend.jpa.entities;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.sudoku.backend.generator.Canonicalizer;
+import com.sudoku.backend.generator.models.Grid;
+import com.sudoku.backend.jpa.converters.GridConverter;
+import com.sudoku.backend.services.SudokuService;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
-
-import java.util.ArrayList;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Table(name = "sudoku")
@@ -14,46 +26,199 @@ public class Sudoku {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private int id;
-    private ArrayList<int[]> sudoku;
-    private ArrayList<int[]> solution;
+    @Convert(converter = GridConverter.class)
+    @Column(columnDefinition = "bytea")
+    private Grid sudoku;
+    @Convert(converter = GridConverter.class)
+    @Column(columnDefinition = "bytea")
+    private Grid solution;
+    @Convert(converter = GridConverter.class)
+    @Column(columnDefinition = "bytea")
+    private Grid progress;
+    private Long seed;
+    // Follows the grids and is never read from a request. Kept when the grids are dropped, so games of larger grids
+    // which were saved by their seed before they were stored with their grids are regenerated with the right size.
+    @ColumnDefault("3")
+    private int boxSize = Grid.MIN_BOX_SIZE;
+    @Enumerated(EnumType.STRING)
+    private SudokuService.Difficulty difficulty;
     private int errorCount;
     private long elapsedTime;
+    // Kept next to the grids so saved games can be listed without reading a grid column.
+    @ColumnDefault("0")
+    private int clueCount;
+    @ColumnDefault("0")
+    private int filledCells;
+    // Hash of the canonical form, so a user's saved games can be checked for an equivalent puzzle. Null while it is not
+    // known. The check goes through the user's saved games, so the column needs no index of its own.
+    private Long canonicalHash;
 
     public Sudoku() {}
 
+    /**
+     * Copies the state of another sudoku, but not its id.
+     */
+    public void setAll(Sudoku sudoku) {
+        this.sudoku = sudoku.sudoku;
+        this.solution = sudoku.solution;
+        this.progress = sudoku.progress;
+        this.seed = sudoku.seed;
+        this.boxSize = sudoku.boxSize;
+        this.difficulty = sudoku.difficulty;
+        this.errorCount = sudoku.errorCount;
+        this.elapsedTime = sudoku.elapsedTime;
+        this.clueCount = sudoku.clueCount;
+        this.canonicalHash = sudoku.canonicalHash;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void updateDerivedColumns() {
+        updateCanonicalHash();
+        updateFilledCells();
+    }
+
+    private void updateFilledCells() {
+        int entries = 0;
+        if (progress != null) {
+            for (int i = 0; i < progress.cellCount(); i++) {
+                if (progress.get(i) != 0) {
+                    entries++;
+                }
+            }
+        }
+        filledCells = Math.min(clueCount + entries, boxSize * boxSize * boxSize * boxSize);
+    }
+
+    /**
+     * Computes the hash of the canonical form from the clues and the solution, unless it is known already. It is kept
+     * when the grids are dropped, e.g. for games which are regenerated from their seed. Only 9x9 puzzles get one.
+     */
+    public void updateCanonicalHash() {
+        if (canonicalHash == null && sudoku != null && solution != null && sudoku.size() == Grid.SIZE
+                && solution.size() == Grid.SIZE) {
+            try {
+                canonicalHash = Canonicalizer.hash(sudoku, solution);
+            } catch (IllegalArgumentException e) {
+                // A solution which does not match the clues does not identify the puzzle.
+            }
+        }
+    }
+
     public int getId() {
         return id;
     }
 
-    public ArrayList<int[]> getSudoku() {
-        return sudoku;
+    public int[][] getSudoku() {
+        return sudoku != null ? sudoku.toArray() : null;
     }
 
+    /**
+     * Sets the clues. Setting null keeps the clue count, e.g. for games which are regenerated from their seed.
+     */
     public void setSudoku(int[][] sudoku) {
-        this.sudoku = toArrayList(sudoku);
+        this.sudoku = Grid.of(sudoku);
+        if (this.sudoku != null) {
+            canonicalHash = null;
+            boxSize = this.sudoku.boxSize();
+            clueCount = 0;
+            for (int i = 0; i < this.sudoku.cellCount(); i++) {
+                if (this.sudoku.get(i) != 0) {
+                    clueCount++;
+                }
+            }
+        }
     }
 
     public void setSolution(int[][] solution) {
-        this.solution = toArrayList(solution);
+        this.solution = Grid.of(solution);
+        if (this.solution != null) {
+            canonicalHash = null;
+            boxSize = this.solution.boxSize();
+        }
+    }
+
+    public int[][] getSolution() {
+        return solution != null ? solution.toArray() : null;
     }
 
-    public ArrayList<int[]> getSolution() {
+    @JsonIgnore
+    public Grid getSudokuGrid() {
+        return sudoku;
+    }
+
+    @JsonIgnore
+    public Grid getSolutionGrid() {
         return solution;
     }
 
+    @JsonIgnore
+    public int getClueCount() {
+        return clueCount;
+    }
+
+    /**
+     * The hash shared by all puzzles which are equivalent to this one, see {@link Canonicalizer}.
+     *
+     * @return The hash or null if it was not computed yet.
+     */
+    @JsonIgnore
+    public Long getCanonicalHash() {
+        return canonicalHash;
+    }
+
+    /**
+     * The values the player has entered so far, 0 for cells without an entry.
+     */
+    public int[][] getProgress() {
+        return progress != null ? progress.toArray() : null;
+    }
+
+    public void setProgress(int[][] progress) {
+        this.progress = Grid.of(progress);
+    }
+
+    /**
+     * The seed the grids were generated from. It is written as a string because it does not fit into a JavaScript number.
+     */
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * The size of a box of the grid, 3 for a 9x9 grid. It follows the clues and the solution.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public int getBoxSize() {
+        return boxSize;
+    }
+
+    public SudokuService.Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(SudokuService.Difficulty difficulty) {
+        this.difficulty = difficulty;
+    }
+
     public int getErrorCount() {
         return errorCount;
     }
 
+    public void setErrorCount(int errorCount) {
+        this.errorCount = errorCount;
+    }
+
     public long getElapsedTime() {
         return elapsedTime;
     }
 
-    private ArrayList<int[]> toArrayList(int[][] sudoku) {
-        ArrayList<int[]> sudokuList = new ArrayList<>();
-        for (int i = 0; i < 9; i++) {
-            sudokuList.add(sudoku[i]);
-        }
-        return sudokuList;
+    public void setElapsedTime(long elapsedTime) {
+        this.elapsedTime = elapsedTime;
     }
 }
@@ -0,0 +1,55 @@
+package com.sudoku.backend.jpa.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * One delta save of a game in progress. Every changed cell is packed as its index in row order followed by its value,
+ * two bytes per change for grids of up to 256 cells and three bytes (two for the index) for larger grids.
+ * All values are absolute, so replaying an entry more than once leads to the same state.
+ */
+@Entity
+@Table(name = "sudoku_move", indexes = @Index(name = "idx_sudoku_move_sudoku_id", columnList = "sudokuId"))
+public class SudokuMove {
+    // Identity keeps the ids in insertion order, which is the order the log is replayed in. Concurrent inserts may
+    // become visible out of id order, so a compaction deletes exactly the entries it folded.
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+    private int sudokuId;
+    private byte[] changes;
+    private int errorCount;
+    private long elapsedTime;
+
+    public SudokuMove() {}
+    public SudokuMove(int sudokuId, byte[] changes, int errorCount, long elapsedTime) {
+        this.sudokuId = sudokuId;
+        this.changes = changes;
+        this.errorCount = errorCount;
+        this.elapsedTime = elapsedTime;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getSudokuId() {
+        return sudokuId;
+    }
+
+    public byte[] getChanges() {
+        return changes;
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    public long getElapsedTime() {
+        return elapsedTime;
+    }
+}
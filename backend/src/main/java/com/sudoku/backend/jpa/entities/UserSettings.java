@@ -5,6 +5,8 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Table(name = "user_settings")
@@ -17,6 +19,9 @@ public class UserSettings {
     private boolean checkDuplicates;
     private boolean highlightNumbers;
     private boolean backgroundHighlight;
+    @Version
+    @ColumnDefault("0")
+    private long version;
 
     public UserSettings() {
     }
@@ -25,6 +30,13 @@ public class UserSettings {
           return id;
      }
 
+     /**
+      * Incremented on every update, used as the ETag of the settings.
+      */
+     public long getVersion() {
+          return version;
+     }
+
      public void setUserId(String userId) {
           this.userId = userId;
      }
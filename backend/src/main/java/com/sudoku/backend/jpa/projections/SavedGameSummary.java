@@ -0,0 +1,26 @@
+package com.sudoku.backend.jpa.projections;
+
+import com.sudoku.backend.services.SudokuService;
+
+import java.time.Instant;
+
+/**
+ * Listing entry of a saved game. It is read without the grid columns, so listing never loads or converts a grid.
+ */
+public interface SavedGameSummary {
+    /**
+     * The id of the sudoku, which is used to open the game.
+     */
+    int getId();
+
+    SudokuService.Difficulty getDifficulty();
+
+    /**
+     * Share of filled cells (clues and the player's entries) in percent.
+     */
+    int getProgressPercentage();
+
+    long getElapsedTime();
+
+    Instant getLastModified();
+}
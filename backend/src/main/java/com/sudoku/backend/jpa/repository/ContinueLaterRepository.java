@@ -1,10 +1,40 @@
 package com.sudoku.backend.jpa.repository;
 
 import com.sudoku.backend.jpa.entities.ContinueLater;
+import com.sudoku.backend.jpa.projections.SavedGameSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 public interface ContinueLaterRepository extends CrudRepository<ContinueLater, Integer> {
-    public Optional<ContinueLater> findByUserId(String userId);
+    @Query("select c from ContinueLater c left join fetch c.sudoku where c.userId = :userId order by c.lastModified desc nulls last limit 1")
+    public Optional<ContinueLater> findLatestWithSudokuByUserId(String userId);
+
+    @Query("select c from ContinueLater c join fetch c.sudoku s where c.userId = :userId and s.id = :sudokuId")
+    public Optional<ContinueLater> findWithSudokuByUserIdAndSudokuId(String userId, int sudokuId);
+
+    @Query(value = "select s.id as id, s.difficulty as difficulty, "
+            + "s.filledCells * 100 / (s.boxSize * s.boxSize * s.boxSize * s.boxSize) as progressPercentage, "
+            + "s.elapsedTime as elapsedTime, c.lastModified as lastModified "
+            + "from ContinueLater c join c.sudoku s where c.userId = :userId order by c.lastModified desc nulls last",
+            countQuery = "select count(c) from ContinueLater c where c.userId = :userId")
+    public Page<SavedGameSummary> findSummariesByUserId(String userId, Pageable pageable);
+
+    @Query("select c.slot from ContinueLater c where c.userId = :userId")
+    public List<Integer> findSlotsByUserId(String userId);
+
+    @Query("select s.canonicalHash from ContinueLater c join c.sudoku s where c.userId = :userId and s.canonicalHash is not null")
+    public List<Long> findCanonicalHashesByUserId(String userId);
+
+    @Transactional
+    @Modifying
+    @Query("update ContinueLater c set c.lastModified = :lastModified where c.sudoku.id = :sudokuId")
+    public int updateLastModifiedBySudokuId(int sudokuId, Instant lastModified);
 }
@@ -0,0 +1,12 @@
+package com.sudoku.backend.jpa.repository;
+
+import com.sudoku.backend.jpa.entities.DailySudoku;
+import com.sudoku.backend.services.SudokuService;
+import org.springframework.data.repository.CrudRepository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface DailySudokuRepository extends CrudRepository<DailySudoku, Integer> {
+    Optional<DailySudoku> findByDayAndDifficulty(LocalDate day, SudokuService.Difficulty difficulty);
+}
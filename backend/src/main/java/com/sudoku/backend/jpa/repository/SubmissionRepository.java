@@ -0,0 +1,12 @@
+package com.sudoku.backend.jpa.repository;
+
+import com.sudoku.backend.jpa.entities.Submission;
+import com.sudoku.backend.services.SudokuService;
+import org.springframework.data.repository.CrudRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface SubmissionRepository extends CrudRepository<Submission, Long> {
+    List<Submission> findByDayAndDifficulty(LocalDate day, SudokuService.Difficulty difficulty);
+}
@@ -0,0 +1,27 @@
+package com.sudoku.backend.jpa.repository;
+
+import com.sudoku.backend.jpa.entities.SudokuMove;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface SudokuMoveRepository extends CrudRepository<SudokuMove, Long> {
+    List<SudokuMove> findBySudokuIdOrderByIdAsc(int sudokuId);
+
+    @Query("select distinct m.sudokuId from SudokuMove m")
+    List<Integer> findSudokuIdsWithMoves();
+
+    @Transactional
+    @Modifying
+    @Query("delete from SudokuMove m where m.id in :ids")
+    int deleteByIdIn(Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query("delete from SudokuMove m where m.sudokuId = :sudokuId")
+    int deleteAllBySudokuId(int sudokuId);
+}
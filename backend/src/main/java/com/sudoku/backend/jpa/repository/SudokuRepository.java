@@ -1,7 +1,15 @@
 package com.sudoku.backend.jpa.repository;
 
 import com.sudoku.backend.jpa.entities.Sudoku;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
+import java.util.Optional;
+
 public interface SudokuRepository extends CrudRepository<Sudoku, Integer> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from Sudoku s where s.id = :id")
+    Optional<Sudoku> findForUpdateById(int id);
 }
@@ -0,0 +1,163 @@
+package com.sudoku.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the decisions of the policy enforcer per subject, method and path pattern, so repeated calls do not
+ * evaluate the permissions against the authorization server again.
+ * <p>
+ * Paths are keyed by the pattern of the configured path which matches them, since the enforcer decides all of them
+ * alike; a user opening many games therefore needs one decision instead of one per game. Paths without a configured
+ * pattern are keyed as they are.
+ * <p>
+ * A decision is kept for the configured TTL, but never beyond the expiry of the token it was made for.
+ * Grants and 403 denials are cached, anything else the enforcer answers is not; a 401 asks the client to get a new
+ * token, which must not be answered from the cache. Requests without a JWT are always passed to the enforcer. With
+ * local evaluation the configured paths are decided from the token first and the enforcer is only used for the paths
+ * and tokens that cannot be decided locally.
+ */
+public class CachingPolicyEnforcerFilter extends OncePerRequestFilter implements MeterBinder {
+    private final Filter delegate;
+    private final LocalPolicyEvaluator paths;
+    private final boolean localEvaluation;
+    private final Cache<String, Decision> decisions;
+    private final LongAdder localDecisions = new LongAdder();
+    private final LongAdder enforcerCalls = new LongAdder();
+
+    /**
+     * @param delegate        The policy enforcer filter.
+     * @param paths           The paths of the policy enforcer configuration or null to key decisions by the plain path.
+     * @param localEvaluation True to decide the configured paths from the token before asking the enforcer.
+     */
+    public CachingPolicyEnforcerFilter(Filter delegate, LocalPolicyEvaluator paths, boolean localEvaluation,
+                                       long maximumSize, Duration ttl) {
+        this.delegate = delegate;
+        this.paths = paths;
+        this.localEvaluation = localEvaluation && paths != null;
+        this.decisions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilExpiry(ttl))
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!(authentication instanceof JwtAuthenticationToken token)) {
+            enforcerCalls.increment();
+            delegate.doFilter(request, response, chain);
+            return;
+        }
+        Jwt jwt = token.getToken();
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+
+        if (localEvaluation) {
+            Boolean allowed = paths.evaluate(path, request.getMethod(), jwt);
+            if (allowed != null) {
+                localDecisions.increment();
+                apply(allowed ? Decision.ALLOWED : HttpServletResponse.SC_FORBIDDEN, request, response, chain);
+                return;
+            }
+        }
+
+        String pattern = paths != null ? paths.findPattern(path) : null;
+        String key = jwt.getSubject() + " " + request.getMethod() + " " + (pattern != null ? pattern : path);
+        Decision decision = decisions.getIfPresent(key);
+        if (decision != null && (decision.expiresAt() == null || decision.expiresAt().isAfter(Instant.now()))) {
+            apply(decision.status(), request, response, chain);
+            return;
+        }
+
+        enforcerCalls.increment();
+        AtomicBoolean allowed = new AtomicBoolean();
+        delegate.doFilter(request, response, (req, res) -> {
+            allowed.set(true);
+            chain.doFilter(req, res);
+        });
+        int status = allowed.get() ? Decision.ALLOWED : response.getStatus();
+        if (status == Decision.ALLOWED || status == HttpServletResponse.SC_FORBIDDEN) {
+            decisions.put(key, new Decision(status, jwt.getExpiresAt()));
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, decisions, "authorization-decisions");
+        FunctionCounter.builder("authorization.decisions", localDecisions, LongAdder::sum)
+                .description("Requests decided locally or by the policy enforcer, cached decisions not included")
+                .tag("source", "local")
+                .register(registry);
+        FunctionCounter.builder("authorization.decisions", enforcerCalls, LongAdder::sum)
+                .description("Requests decided locally or by the policy enforcer, cached decisions not included")
+                .tag("source", "enforcer")
+                .register(registry);
+    }
+
+    private static void apply(int status, HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (status == Decision.ALLOWED) {
+            chain.doFilter(request, response);
+        } else {
+            response.sendError(status);
+        }
+    }
+
+    /**
+     * @param status    {@link #ALLOWED} or the status the enforcer denied the request with.
+     * @param expiresAt The expiry of the token the decision was made for.
+     */
+    private record Decision(int status, Instant expiresAt) {
+        private static final int ALLOWED = 0;
+    }
+
+    /**
+     * Expires every decision after the TTL or at the expiry of its token, whichever comes first.
+     */
+    private record UntilExpiry(Duration ttl) implements Expiry<String, Decision> {
+        @Override
+        public long expireAfterCreate(String key, Decision decision, long currentTime) {
+            if (decision.expiresAt() == null) {
+                return ttl.toNanos();
+            }
+            Duration remaining = Duration.between(Instant.now(), decision.expiresAt());
+            if (remaining.isNegative()) {
+                return 0;
+            }
+            return (remaining.compareTo(ttl) < 0 ? remaining : ttl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Decision decision, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, decision, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Decision decision, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.sudoku.backend.security;
+
+import org.keycloak.representations.adapters.config.PolicyEnforcerConfig;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decides access to the paths of the policy enforcer configuration from the token alone.
+ * <p>
+ * Disabled paths are always allowed. For the other configured paths the token has to carry a permission for the
+ * path's resource in its {@code authorization.permissions} claim. Like the policy enforcer, the permission needs all
+ * scopes configured for the request method, or any of the scopes of the path if the method has none, and a permission
+ * without scopes grants every scope. Paths that are not configured and tokens without an authorization claim are left
+ * to the remote policy enforcer.
+ * <p>
+ * Path patterns follow the policy enforcer: a trailing {@code /*} matches everything below the prefix and
+ * {@code {name}} matches a single path segment.
+ */
+public class LocalPolicyEvaluator {
+    private final PolicyEnforcerConfig config;
+
+    public LocalPolicyEvaluator(PolicyEnforcerConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * @return True if access is granted, false if it is denied or null if the decision has to be made remotely.
+     */
+    public Boolean evaluate(String path, String method, Jwt jwt) {
+        PolicyEnforcerConfig.PathConfig pathConfig = findPathConfig(path);
+        if (pathConfig == null) {
+            return null;
+        }
+        if (pathConfig.getEnforcementMode() == PolicyEnforcerConfig.EnforcementMode.DISABLED) {
+            return true;
+        }
+
+        Map<String, Object> authorization = jwt.getClaimAsMap("authorization");
+        if (authorization == null || !(authorization.get("permissions") instanceof Collection<?> permissions)) {
+            return null;
+        }
+        PolicyEnforcerConfig.MethodConfig methodConfig = methodConfig(pathConfig, method);
+        for (Object permission : permissions) {
+            if (permission instanceof Map<?, ?> granted && pathConfig.getName() != null
+                    && pathConfig.getName().equals(granted.get("rsname"))
+                    && hasScopes(methodConfig, granted.get("scopes"))) {
+                return true;
+            }
+        }
+        return pathConfig.getEnforcementMode() == PolicyEnforcerConfig.EnforcementMode.PERMISSIVE;
+    }
+
+    /**
+     * Returns the pattern of the configured path which decides access to the path or null if no pattern matches.
+     * All paths with the same pattern get the same decision for the same token and method.
+     */
+    public String findPattern(String path) {
+        PolicyEnforcerConfig.PathConfig pathConfig = findPathConfig(path);
+        return pathConfig != null ? pathConfig.getPath() : null;
+    }
+
+    /**
+     * Returns the configured path with the longest matching pattern or null if no pattern matches.
+     */
+    private PolicyEnforcerConfig.PathConfig findPathConfig(String path) {
+        PolicyEnforcerConfig.PathConfig best = null;
+        for (PolicyEnforcerConfig.PathConfig pathConfig : config.getPaths()) {
+            if (pathConfig.getPath() != null && matches(pathConfig.getPath(), path)
+                    && (best == null || pathConfig.getPath().length() > best.getPath().length())) {
+                best = pathConfig;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the scopes configured for the method or, if there are none, any of the scopes of the path.
+     */
+    private static PolicyEnforcerConfig.MethodConfig methodConfig(PolicyEnforcerConfig.PathConfig pathConfig, String method) {
+        if (pathConfig.getMethods() != null) {
+            for (PolicyEnforcerConfig.MethodConfig methodConfig : pathConfig.getMethods()) {
+                if (method.equalsIgnoreCase(methodConfig.getMethod())) {
+                    return methodConfig;
+                }
+            }
+        }
+        PolicyEnforcerConfig.MethodConfig methodConfig = new PolicyEnforcerConfig.MethodConfig();
+        methodConfig.setMethod(method);
+        methodConfig.setScopes(pathConfig.getScopes() != null ? pathConfig.getScopes() : List.of());
+        methodConfig.setScopesEnforcementMode(PolicyEnforcerConfig.ScopeEnforcementMode.ANY);
+        return methodConfig;
+    }
+
+    private static boolean hasScopes(PolicyEnforcerConfig.MethodConfig methodConfig, Object grantedScopes) {
+        List<String> required = methodConfig.getScopes();
+        if (methodConfig.getScopesEnforcementMode() == PolicyEnforcerConfig.ScopeEnforcementMode.DISABLED
+                || !(grantedScopes instanceof Collection<?> granted) || granted.isEmpty() || required.isEmpty()) {
+            return true;
+        }
+        if (methodConfig.getScopesEnforcementMode() == PolicyEnforcerConfig.ScopeEnforcementMode.ANY) {
+            return required.stream().anyMatch(granted::contains);
+        }
+        return granted.containsAll(required);
+    }
+
+    static boolean matches(String pattern, String path) {
+        if (pattern.endsWith("/*")) {
+            String prefix = pattern.substring(0, pattern.length() - 1);
+            return path.startsWith(prefix) || path.equals(prefix.substring(0, prefix.length() - 1));
+        }
+        String[] patternSegments = pattern.split("/", -1);
+        String[] pathSegments = path.split("/", -1);
+        if (patternSegments.length != pathSegments.length) {
+            return false;
+        }
+        for (int i = 0; i < patternSegments.length; i++) {
+            String segment = patternSegments[i];
+            boolean placeholder = segment.startsWith("{") && segment.endsWith("}") && !pathSegments[i].isEmpty();
+            if (!placeholder && !segment.equals(pathSegments[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
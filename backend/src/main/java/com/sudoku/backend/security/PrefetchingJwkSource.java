@@ -0,0 +1,209 @@
+package com.sudoku.backend.security;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Source of the identity provider's signing keys that keeps the JWK set in memory and refreshes it in the background.
+ * <p>
+ * The set is fetched once at startup and then every refresh interval. A set older than the refresh interval is still
+ * served for the stale window while a background refresh runs; only a missing or even older set blocks the request.
+ * A token signed with an unknown key triggers one extra fetch, at most once per minimum refetch interval, so key
+ * rotations are picked up without letting made-up key ids hammer the identity provider.
+ * <p>
+ * At most a configured number of fetches run at the same time. Requests that wait for a fetch reuse the set another
+ * request fetched meanwhile instead of fetching again.
+ */
+public class PrefetchingJwkSource implements JWKSource<SecurityContext>, MeterBinder, AutoCloseable {
+    private static final Logger log = LogManager.getLogger(PrefetchingJwkSource.class);
+
+    private final URI jwkSetUri;
+    private final Duration refreshInterval;
+    private final Duration staleWindow;
+    private final Duration minRefetchInterval;
+    private final Duration fetchTimeout;
+    private final Semaphore fetchPermits;
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final LongAdder fetches = new LongAdder();
+    private final LongAdder fetchFailures = new LongAdder();
+    private final LongAdder staleServes = new LongAdder();
+    private final LongAdder unknownKeyRefetches = new LongAdder();
+    private volatile Snapshot snapshot;
+
+    public PrefetchingJwkSource(URI jwkSetUri, Duration refreshInterval, Duration staleWindow,
+                                Duration minRefetchInterval, Duration fetchTimeout, int maxConcurrentFetches) {
+        this.jwkSetUri = jwkSetUri;
+        this.refreshInterval = refreshInterval;
+        this.staleWindow = staleWindow;
+        this.minRefetchInterval = minRefetchInterval;
+        this.fetchTimeout = fetchTimeout;
+        this.fetchPermits = new Semaphore(Math.max(maxConcurrentFetches, 1));
+        this.httpClient = HttpClient.newBuilder().connectTimeout(fetchTimeout).build();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwk-set-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Fetches the JWK set right away and then every refresh interval.
+     */
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) throws KeySourceException {
+        Snapshot current = snapshot;
+        Instant now = Instant.now();
+        if (current == null || now.isAfter(current.fetchedAt().plus(refreshInterval).plus(staleWindow))) {
+            current = fetch(current);
+        } else if (now.isAfter(current.fetchedAt().plus(refreshInterval))) {
+            staleServes.increment();
+            refreshInBackground();
+        }
+
+        List<JWK> keys = jwkSelector.select(current.jwkSet());
+        if (keys.isEmpty() && now.isAfter(current.fetchedAt().plus(minRefetchInterval))) {
+            unknownKeyRefetches.increment();
+            try {
+                keys = jwkSelector.select(fetch(current).jwkSet());
+            } catch (KeySourceException e) {
+                log.warn("Could not refetch the JWK set for an unknown key", e);
+            }
+        }
+        return keys;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("jwt.jwk.set.keys", this,
+                        source -> source.snapshot != null ? source.snapshot.jwkSet().getKeys().size() : 0)
+                .description("Keys in the cached JWK set")
+                .register(registry);
+        Gauge.builder("jwt.jwk.set.age", this, source -> source.snapshot != null
+                        ? Duration.between(source.snapshot.fetchedAt(), Instant.now()).toMillis() / 1000.0 : Double.NaN)
+                .description("Time since the cached JWK set was fetched")
+                .baseUnit("seconds")
+                .register(registry);
+        FunctionCounter.builder("jwt.jwk.set.fetches", fetches, LongAdder::sum)
+                .description("Fetches of the JWK set")
+                .tag("result", "success")
+                .register(registry);
+        FunctionCounter.builder("jwt.jwk.set.fetches", fetchFailures, LongAdder::sum)
+                .description("Fetches of the JWK set")
+                .tag("result", "failure")
+                .register(registry);
+        FunctionCounter.builder("jwt.jwk.set.stale.serves", staleServes, LongAdder::sum)
+                .description("Requests served from a stale JWK set while it was refreshed")
+                .register(registry);
+        FunctionCounter.builder("jwt.jwk.set.unknown.key.refetches", unknownKeyRefetches, LongAdder::sum)
+                .description("Fetches of the JWK set for a token signed with an unknown key")
+                .register(registry);
+    }
+
+    private void refresh() {
+        try {
+            fetch(snapshot);
+        } catch (KeySourceException e) {
+            log.warn("Could not refresh the JWK set", e);
+        }
+    }
+
+    private void refreshInBackground() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scheduler.execute(() -> {
+                try {
+                    refresh();
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshing.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Fetches the JWK set unless another fetch replaced the given snapshot in the meantime.
+     *
+     * @param seen The snapshot the caller found outdated, or null if there was none.
+     * @return The newest snapshot.
+     * @throws KeySourceException If no permit could be acquired in time or the fetch failed.
+     */
+    private Snapshot fetch(Snapshot seen) throws KeySourceException {
+        try {
+            if (!fetchPermits.tryAcquire(fetchTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new KeySourceException("Timed out waiting for a running JWK set fetch");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KeySourceException("Interrupted while waiting for a running JWK set fetch", e);
+        }
+        try {
+            Snapshot latest = snapshot;
+            if (latest != null && latest != seen) {
+                return latest;
+            }
+            HttpRequest request = HttpRequest.newBuilder(jwkSetUri).timeout(fetchTimeout).GET().build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("JWK set endpoint answered with status " + response.statusCode());
+            }
+            latest = new Snapshot(JWKSet.parse(response.body()), Instant.now());
+            snapshot = latest;
+            fetches.increment();
+            return latest;
+        } catch (IOException | ParseException e) {
+            fetchFailures.increment();
+            throw new KeySourceException("Could not fetch the JWK set from " + jwkSetUri, e);
+        } catch (InterruptedException e) {
+            fetchFailures.increment();
+            Thread.currentThread().interrupt();
+            throw new KeySourceException("Interrupted while fetching the JWK set", e);
+        } finally {
+            fetchPermits.release();
+        }
+    }
+
+    private record Snapshot(JWKSet jwkSet, Instant fetchedAt) {
+    }
+}
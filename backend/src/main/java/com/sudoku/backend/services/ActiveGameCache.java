@@ -0,0 +1,61 @@
+package com.sudoku.backend.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sudoku.backend.generator.models.Grid;
+import com.sudoku.backend.jpa.entities.Sudoku;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Keeps the solution of every user's game in progress in memory, so single moves can be checked without a database hit.
+ * Entries are evicted when the cache is full or when a user has not touched the game for the idle timeout.
+ */
+@Component
+public class ActiveGameCache {
+    private final Cache<String, ActiveGame> games;
+
+    public ActiveGameCache(MeterRegistry meterRegistry,
+                           @Value("${sudoku.active-games.maximum-size:10000}") long maximumSize,
+                           @Value("${sudoku.active-games.idle-timeout:30m}") Duration idleTimeout) {
+        this.games = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(idleTimeout)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, games, "active-games");
+    }
+
+    /**
+     * Returns the active game of the user or null if none is cached.
+     */
+    public ActiveGame get(String userId) {
+        return games.getIfPresent(userId);
+    }
+
+    /**
+     * Caches the sudoku as the user's active game. Sudokus without a solution are ignored.
+     */
+    public void put(String userId, Sudoku sudoku) {
+        if (sudoku.getSolutionGrid() != null) {
+            games.put(userId, new ActiveGame(sudoku.getId(), sudoku.getSolutionGrid()));
+        }
+    }
+
+    public void invalidate(String userId) {
+        games.invalidate(userId);
+    }
+
+    public record ActiveGame(int sudokuId, Grid solution) {
+        /**
+         * Checks if the value is the solution of the cell.
+         */
+        public boolean isCorrect(int cellX, int cellY, int value) {
+            return solution.get(cellX, cellY) == value;
+        }
+    }
+}
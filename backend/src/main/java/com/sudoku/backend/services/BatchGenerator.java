@@ -0,0 +1,112 @@
+package com.sudoku.backend.services;
+
+import com.sudoku.backend.jpa.entities.Sudoku;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates many sudokus at once on the {@link GenerationExecutor}, so batch requests never occupy more than one
+ * servlet thread and share the generation threads with all other generations instead of bringing their own.
+ * <p>
+ * A batch is split into one worker per generation thread, which take the next free result slot until all are
+ * filled, so a batch takes only a few places of the generation queue however many puzzles it asks for.
+ * Every worker gets its own {@link SplittableRandom} split off the batch's one, so no random source is shared between
+ * threads. The puzzles themselves are generated from a seed drawn from the worker's random source.
+ * Only a limited number of batches run at the same time, further ones are rejected instead of queueing up.
+ */
+@Component
+public class BatchGenerator {
+    private final SudokuService sudokuService;
+    private final GenerationExecutor generationExecutor;
+    private final int parallelism;
+    private final int maxCount;
+    private final Semaphore running;
+
+    public BatchGenerator(SudokuService sudokuService, GenerationExecutor generationExecutor,
+                          @Value("${sudoku.batch.parallelism:0}") int parallelism,
+                          @Value("${sudoku.batch.max-count:500}") int maxCount,
+                          @Value("${sudoku.batch.max-concurrent:2}") int maxConcurrent) {
+        this.sudokuService = sudokuService;
+        this.generationExecutor = generationExecutor;
+        this.parallelism = parallelism > 0 ? parallelism : generationExecutor.getThreads();
+        this.maxCount = maxCount;
+        this.running = new Semaphore(Math.max(maxConcurrent, 1));
+    }
+
+    public int getMaxCount() {
+        return maxCount;
+    }
+
+    /**
+     * Generates count sudokus of the given difficulty in parallel.
+     *
+     * @throws IllegalArgumentException   If count is not between 1 and the configured maximum.
+     * @throws RejectedExecutionException If the maximum number of batches is already running or the generation queue
+     *                                    is full.
+     */
+    public List<Sudoku> generate(SudokuService.Difficulty difficulty, int count) {
+        if (count < 1 || count > maxCount) {
+            throw new IllegalArgumentException("count must be between 1 and " + maxCount);
+        }
+        if (!running.tryAcquire()) {
+            throw new RejectedExecutionException("Too many batches are running");
+        }
+        try {
+            Sudoku[] sudokus = new Sudoku[count];
+            AtomicInteger next = new AtomicInteger();
+            SplittableRandom random = new SplittableRandom();
+            List<Callable<Void>> workers = new ArrayList<>();
+            for (int i = 0; i < Math.min(parallelism, count); i++) {
+                workers.add(new Worker(difficulty, sudokus, next, random.split()));
+            }
+            generationExecutor.callAll(workers);
+            return Arrays.asList(sudokus);
+        } finally {
+            running.release();
+        }
+    }
+
+    /**
+     * Convenience method for {@link #generate(SudokuService.Difficulty, int)}.
+     */
+    public List<Sudoku> generate(String difficulty, int count) {
+        return generate(SudokuService.Difficulty.valueOf(difficulty.toUpperCase()), count);
+    }
+
+    /**
+     * Generates puzzles into the next free result slot until all slots are taken.
+     */
+    private class Worker implements Callable<Void> {
+        private final SudokuService.Difficulty difficulty;
+        private final Sudoku[] results;
+        private final AtomicInteger next;
+        private final SplittableRandom random;
+
+        private Worker(SudokuService.Difficulty difficulty, Sudoku[] results, AtomicInteger next, SplittableRandom random) {
+            this.difficulty = difficulty;
+            this.results = results;
+            this.next = next;
+            this.random = random;
+        }
+
+        @Override
+        public Void call() {
+            for (int slot = next.getAndIncrement(); slot < results.length; slot = next.getAndIncrement()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+                results[slot] = sudokuService.newSudoku(difficulty, random.nextLong());
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.sudoku.backend.services;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sudoku.backend.jpa.entities.DailySudoku;
+import com.sudoku.backend.jpa.entities.Sudoku;
+import com.sudoku.backend.jpa.repository.DailySudokuRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Provides the daily puzzle of every difficulty, which is the same for all players.
+ * <p>
+ * Each daily puzzle is generated once, persisted and kept in memory for its day. The puzzles of the next day are
+ * built ahead of time at startup and by a scheduled job before the rollover, so requests at midnight find them ready.
+ * Puzzles of past days are read from the database and not kept in memory.
+ * <p>
+ * A missing puzzle is loaded on its own virtual thread, while requests for the same puzzle wait for that one load.
+ * Requests for other puzzles are not held up by it. A puzzle which has to be generated is generated on the
+ * {@link GenerationExecutor}, like every other one.
+ */
+@Component
+public class DailySudokuService {
+    private static final Logger log = LogManager.getLogger(DailySudokuService.class);
+
+    private final DailySudokuRepository repository;
+    private final SudokuService sudokuService;
+    private final GenerationExecutor generationExecutor;
+    private final ZoneId zone;
+    private final AsyncLoadingCache<Key, DailySudoku> puzzles;
+
+    public DailySudokuService(DailySudokuRepository repository, SudokuService sudokuService,
+                              GenerationExecutor generationExecutor, @Value("${sudoku.daily.zone:UTC}") ZoneId zone) {
+        this.repository = repository;
+        this.sudokuService = sudokuService;
+        this.generationExecutor = generationExecutor;
+        this.zone = zone;
+        this.puzzles = Caffeine.newBuilder()
+                .executor(runnable -> Thread.ofVirtual().name("daily-sudoku").start(runnable))
+                .buildAsync(this::loadOrCreate);
+    }
+
+    public LocalDate today() {
+        return LocalDate.now(zone);
+    }
+
+    /**
+     * Returns the instant the daily puzzles of the day are replaced by the next ones.
+     */
+    public Instant rollover(LocalDate day) {
+        return day.plusDays(1).atStartOfDay(zone).toInstant();
+    }
+
+    /**
+     * Returns the daily puzzle of the difficulty for today.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException If the puzzle has to be generated and the generation
+     *                                                         queue is full.
+     */
+    public DailySudoku getToday(SudokuService.Difficulty difficulty) {
+        return getCurrent(today(), difficulty);
+    }
+
+    /**
+     * Returns the daily puzzle of the difficulty for the day.
+     *
+     * @return The puzzle or null if the day is in the future or there was no puzzle on that day.
+     */
+    public DailySudoku get(LocalDate day, SudokuService.Difficulty difficulty) {
+        LocalDate today = today();
+        if (day.isAfter(today)) {
+            return null;
+        }
+        if (day.equals(today)) {
+            return getCurrent(day, difficulty);
+        }
+        return repository.findByDayAndDifficulty(day, difficulty).orElse(null);
+    }
+
+    /**
+     * Builds the puzzles of today and tomorrow if they do not exist yet and drops the puzzles of past days from memory.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${sudoku.daily.prebuild-cron:0 0 23 * * *}", zone = "${sudoku.daily.zone:UTC}")
+    public void prebuild() {
+        LocalDate today = today();
+        try {
+            for (SudokuService.Difficulty difficulty : SudokuService.Difficulty.values()) {
+                getCurrent(today, difficulty);
+                getCurrent(today.plusDays(1), difficulty);
+            }
+        } catch (Exception e) {
+            log.error(e);
+        }
+        puzzles.synchronous().asMap().keySet().removeIf(key -> key.day().isBefore(today));
+    }
+
+    /**
+     * Returns the puzzle from memory or waits for its load. A failed load is not kept, so the next request retries it.
+     */
+    private DailySudoku getCurrent(LocalDate day, SudokuService.Difficulty difficulty) {
+        try {
+            return puzzles.get(new Key(day, difficulty)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private DailySudoku loadOrCreate(Key key) {
+        return repository.findByDayAndDifficulty(key.day(), key.difficulty()).orElseGet(() -> {
+            // Generated from a seed even if the difficulty is amplified, so it is a new puzzle and not a copy of one.
+            long seed = ThreadLocalRandom.current().nextLong();
+            Sudoku generated = generationExecutor.call(() -> sudokuService.newSudoku(key.difficulty(), seed));
+            DailySudoku created = new DailySudoku(key.day(), generated, Instant.now());
+            try {
+                return repository.save(created);
+            } catch (DataIntegrityViolationException e) {
+                // Another instance stored the puzzle of the day first.
+                return repository.findByDayAndDifficulty(key.day(), key.difficulty()).orElseThrow(() -> e);
+            }
+        });
+    }
+
+    private record Key(LocalDate day, SudokuService.Difficulty difficulty) {
+    }
+}
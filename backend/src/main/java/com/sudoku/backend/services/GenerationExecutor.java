@@ -0,0 +1,155 @@
+package com.sudoku.backend.services;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Platform thread pool for CPU-bound sudoku generation, sized to the number of cores.
+ * <p>
+ * Requests are served on virtual threads, so they cheaply block while their generation runs here. The queue is
+ * bounded and a full queue rejects the task right away instead of letting a generation burst pile up, which keeps
+ * generation from taking the CPU away from all other endpoints. All generations of the backend run here, requests,
+ * jobs, batches, exports and the refills of the {@link PuzzlePool}, so together they never use more than these threads.
+ */
+@Component
+public class GenerationExecutor {
+    private final ThreadPoolExecutor executor;
+    private final Duration retryAfter;
+    private final LongAdder rejected = new LongAdder();
+
+    public GenerationExecutor(MeterRegistry meterRegistry,
+                              @Value("${sudoku.generation.threads:0}") int threads,
+                              @Value("${sudoku.generation.queue-capacity:64}") int queueCapacity,
+                              @Value("${sudoku.generation.retry-after:1s}") Duration retryAfter) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)), runnable -> {
+            Thread thread = new Thread(runnable, "generation-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.retryAfter = retryAfter;
+
+        new ExecutorServiceMetrics(executor, "generation", Tags.empty()).bindTo(meterRegistry);
+        FunctionCounter.builder("sudoku.generation.rejected", rejected, LongAdder::sum)
+                .description("Generation tasks rejected because the queue was full")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues the task without waiting for it.
+     *
+     * @throws RejectedExecutionException If the queue is full.
+     */
+    public void execute(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the task on the pool and waits for its result. If the waiting thread is interrupted, the task is
+     * interrupted as well.
+     *
+     * @throws RejectedExecutionException If the queue is full.
+     */
+    public <T> T call(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for the generation");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Runs all tasks on the pool and waits for their results, in the order of the tasks. If one of the tasks fails or
+     * the waiting thread is interrupted, the remaining tasks are cancelled.
+     *
+     * @throws RejectedExecutionException If the queue has no room for all tasks, none of them is run then.
+     */
+    public <T> List<T> callAll(List<? extends Callable<T>> tasks) {
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        try {
+            for (Callable<T> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+        try {
+            List<T> results = new ArrayList<>(futures.size());
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for the generation");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * The number of threads generating at the same time.
+     */
+    public int getThreads() {
+        return executor.getMaximumPoolSize();
+    }
+
+    /**
+     * The time clients are asked to wait before retrying a rejected request.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
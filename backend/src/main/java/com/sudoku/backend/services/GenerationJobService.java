@@ -0,0 +1,232 @@
+package com.sudoku.backend.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sudoku.backend.generator.models.Grid;
+import com.sudoku.backend.jpa.entities.Sudoku;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs sudoku generations as jobs on the {@link GenerationExecutor}, so callers do not have to hold a request open
+ * while waiting.
+ * <p>
+ * Every job has a deadline, counted from its submission. When it passes, the generating thread is interrupted, which
+ * stops the cell removal and returns the puzzle reached so far. A job still queued at its deadline fails.
+ * Cancelling a job interrupts the thread the same way and drops the result. Finished jobs are kept for a while to be
+ * polled, then they are evicted. The status of a job only describes the puzzle, the puzzle itself is fetched once the
+ * job is done.
+ */
+@Component
+public class GenerationJobService {
+    private static final Logger log = LogManager.getLogger(GenerationJobService.class);
+
+    private final SudokuService sudokuService;
+    private final Duration defaultDeadline;
+    private final Duration maxDeadline;
+    private final Cache<String, Job> jobs;
+    private final GenerationExecutor executor;
+    private final ScheduledExecutorService deadlines;
+
+    public GenerationJobService(SudokuService sudokuService, GenerationExecutor executor,
+                                @Value("${sudoku.jobs.default-deadline:2s}") Duration defaultDeadline,
+                                @Value("${sudoku.jobs.max-deadline:30s}") Duration maxDeadline,
+                                @Value("${sudoku.jobs.retention:10m}") Duration retention) {
+        this.sudokuService = sudokuService;
+        this.defaultDeadline = defaultDeadline;
+        this.maxDeadline = maxDeadline;
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(retention)
+                .build();
+        this.executor = executor;
+        this.deadlines = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "generation-job-deadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deadlines.shutdownNow();
+    }
+
+    /**
+     * Queues the generation of a sudoku.
+     *
+     * @param owner    The subject of the user who may poll and cancel the job.
+     * @param deadline The time the job may take, null for the default. It is capped at the configured maximum.
+     * @return The status of the queued job.
+     * @throws RejectedExecutionException If the generation queue is full.
+     */
+    public JobStatus submit(String owner, SudokuService.Difficulty difficulty, Duration deadline) {
+        if (deadline == null || deadline.isNegative() || deadline.isZero()) {
+            deadline = defaultDeadline;
+        } else if (deadline.compareTo(maxDeadline) > 0) {
+            deadline = maxDeadline;
+        }
+        Job job = new Job(UUID.randomUUID().toString(), owner, difficulty, Instant.now().plus(deadline));
+        jobs.put(job.id, job);
+        try {
+            executor.execute(job::run);
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.id);
+            throw e;
+        }
+        job.deadlineTimer = deadlines.schedule(job::expire, deadline.toMillis(), TimeUnit.MILLISECONDS);
+        return job.status();
+    }
+
+    /**
+     * Convenience method for {@link #submit(String, SudokuService.Difficulty, Duration)}.
+     */
+    public JobStatus submit(String owner, String difficulty, Duration deadline) {
+        return submit(owner, SudokuService.Difficulty.valueOf(difficulty.toUpperCase()), deadline);
+    }
+
+    /**
+     * @return The status of the job or null if the owner has no job with this id.
+     */
+    public JobStatus getStatus(String owner, String id) {
+        Job job = find(owner, id);
+        return job != null ? job.status() : null;
+    }
+
+    /**
+     * Cancels the job. A running generation is stopped, a finished job keeps its result.
+     *
+     * @return The status of the job or null if the owner has no job with this id.
+     */
+    public JobStatus cancel(String owner, String id) {
+        Job job = find(owner, id);
+        if (job == null) {
+            return null;
+        }
+        job.cancel();
+        return job.status();
+    }
+
+    /**
+     * @return The puzzle of the finished job or null if the owner has no job with this id or the job is not done.
+     */
+    public Sudoku getSudoku(String owner, String id) {
+        Job job = find(owner, id);
+        return job != null ? job.result() : null;
+    }
+
+    private Job find(String owner, String id) {
+        Job job = jobs.getIfPresent(id);
+        return job != null && job.owner.equals(owner) ? job : null;
+    }
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        DONE,
+        CANCELLED,
+        FAILED
+    }
+
+    /**
+     * @param deadlineReached True if the generation was stopped by the deadline.
+     * @param clueCount       The number of clues of the generated puzzle, 0 while there is none.
+     * @param targetReached   True if the puzzle has as few clues as its difficulty asks for.
+     */
+    public record JobStatus(String id, State state, SudokuService.Difficulty difficulty, Instant deadline,
+                            boolean deadlineReached, int clueCount, boolean targetReached) {
+    }
+
+    private final class Job {
+        private final String id;
+        private final String owner;
+        private final SudokuService.Difficulty difficulty;
+        private final Instant deadline;
+        private volatile ScheduledFuture<?> deadlineTimer;
+        // Guarded by this. The thread is only set while the job generates, so an interrupt never hits another job.
+        private Thread thread;
+        private State state = State.QUEUED;
+        private boolean deadlineReached;
+        private Sudoku sudoku;
+
+        private Job(String id, String owner, SudokuService.Difficulty difficulty, Instant deadline) {
+            this.id = id;
+            this.owner = owner;
+            this.difficulty = difficulty;
+            this.deadline = deadline;
+        }
+
+        private void run() {
+            synchronized (this) {
+                if (state != State.QUEUED) {
+                    return;
+                }
+                state = State.RUNNING;
+                thread = Thread.currentThread();
+            }
+            Sudoku generated = null;
+            try {
+                generated = sudokuService.newSudoku(difficulty);
+            } catch (Exception e) {
+                log.error(e);
+            } finally {
+                synchronized (this) {
+                    thread = null;
+                    // Clear the interrupt of the deadline or a cancellation before the thread runs the next job.
+                    Thread.interrupted();
+                    if (state == State.RUNNING) {
+                        state = generated != null ? State.DONE : State.FAILED;
+                        sudoku = generated;
+                    }
+                }
+                ScheduledFuture<?> timer = deadlineTimer;
+                if (timer != null) {
+                    timer.cancel(false);
+                }
+                // Re-insert the job, so it is kept for the whole retention after it finished.
+                jobs.put(id, this);
+            }
+        }
+
+        private synchronized void expire() {
+            if (state == State.RUNNING) {
+                deadlineReached = true;
+                thread.interrupt();
+            } else if (state == State.QUEUED) {
+                // Nothing was generated yet, so there is no puzzle to return.
+                deadlineReached = true;
+                state = State.FAILED;
+            }
+        }
+
+        private synchronized void cancel() {
+            if (state == State.RUNNING) {
+                thread.interrupt();
+            }
+            if (state == State.QUEUED || state == State.RUNNING) {
+                state = State.CANCELLED;
+            }
+        }
+
+        private synchronized JobStatus status() {
+            int clueCount = sudoku != null ? sudoku.getClueCount() : 0;
+            boolean targetReached = sudoku != null && clueCount <= Grid.CELLS - difficulty.getCellsToRemove();
+            return new JobStatus(id, state, difficulty, deadline, deadlineReached, clueCount, targetReached);
+        }
+
+        private synchronized Sudoku result() {
+            return state == State.DONE ? sudoku : null;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.sudoku.backend.services;
+
+import com.sudoku.backend.generator.models.Grid;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters of the sudoku generator, tagged with the difficulty and the grid size.
+ * <p>
+ * The meters are registered once per difficulty and grid size up front, so recording a generation does not look
+ * anything up in the registry.
+ */
+@Component
+public class GeneratorMetrics {
+    // Indexed by the box size minus the smallest one.
+    private final Map<SudokuService.Difficulty, Meters[]> meters = new EnumMap<>(SudokuService.Difficulty.class);
+
+    public GeneratorMetrics(MeterRegistry registry) {
+        for (SudokuService.Difficulty difficulty : SudokuService.Difficulty.values()) {
+            Meters[] sizes = new Meters[Grid.MAX_BOX_SIZE - Grid.MIN_BOX_SIZE + 1];
+            for (int boxSize = Grid.MIN_BOX_SIZE; boxSize <= Grid.MAX_BOX_SIZE; boxSize++) {
+                int size = boxSize * boxSize;
+                sizes[boxSize - Grid.MIN_BOX_SIZE] =
+                        new Meters(registry, Tags.of("difficulty", difficulty.name(), "size", size + "x" + size));
+            }
+            meters.put(difficulty, sizes);
+        }
+    }
+
+    /**
+     * Records one generated puzzle.
+     *
+     * @param boxSize         The box size of the grid, 3 for a 9x9 grid.
+     * @param nanos           The time the whole generation took.
+     * @param solveNodes      The search nodes visited while filling the solution.
+     * @param uniquenessNodes The search nodes visited by all uniqueness checks of the cell-removal loop.
+     * @param attempts        The number of cells the removal loop tried to erase, one uniqueness check each.
+     * @param removed         The number of cells that were erased.
+     * @param target          The number of cells the difficulty asks to erase.
+     */
+    public void recordGeneration(SudokuService.Difficulty difficulty, int boxSize, long nanos, long solveNodes,
+                                 long uniquenessNodes, int attempts, int removed, int target) {
+        Meters m = meters.get(difficulty)[boxSize - Grid.MIN_BOX_SIZE];
+        m.latency.record(nanos, TimeUnit.NANOSECONDS);
+        m.solveNodes.record(solveNodes);
+        m.uniquenessNodes.record(uniquenessNodes);
+        m.uniquenessChecks.record(attempts);
+        m.removalAttempts.increment(attempts);
+        m.removalSuccesses.increment(removed);
+        if (removed < target) {
+            m.missedTargets.increment();
+            m.missedCells.record(target - removed);
+        }
+    }
+
+    /**
+     * Records one puzzle which was derived from a base puzzle by a transformation instead of being generated.
+     * Only 9x9 puzzles are transformed.
+     */
+    public void recordTransformation(SudokuService.Difficulty difficulty) {
+        meters.get(difficulty)[0].transformations.increment();
+    }
+
+    private static final class Meters {
+        private final Timer latency;
+        private final DistributionSummary solveNodes;
+        private final DistributionSummary uniquenessNodes;
+        private final DistributionSummary uniquenessChecks;
+        private final Counter removalAttempts;
+        private final Counter removalSuccesses;
+        private final Counter missedTargets;
+        private final DistributionSummary missedCells;
+        private final Counter transformations;
+
+        private Meters(MeterRegistry registry, Tags tags) {
+            latency = Timer.builder("sudoku.generation")
+                    .description("Time to generate a puzzle")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            solveNodes = nodes(registry, tags, "solve");
+            uniquenessNodes = nodes(registry, tags, "uniqueness");
+            uniquenessChecks = DistributionSummary.builder("sudoku.generation.uniqueness.checks")
+                    .description("Uniqueness checks per generated puzzle")
+                    .tags(tags)
+                    .register(registry);
+            removalAttempts = Counter.builder("sudoku.generation.removal.attempts")
+                    .description("Cells the removal loop tried to erase")
+                    .tags(tags)
+                    .register(registry);
+            removalSuccesses = Counter.builder("sudoku.generation.removal.successes")
+                    .description("Cells the removal loop erased while keeping the solution unique")
+                    .tags(tags)
+                    .register(registry);
+            missedTargets = Counter.builder("sudoku.generation.target.missed")
+                    .description("Puzzles that kept more clues than their difficulty asks for")
+                    .tags(tags)
+                    .register(registry);
+            missedCells = DistributionSummary.builder("sudoku.generation.target.missed.cells")
+                    .description("Cells short of the removal target per puzzle that missed it")
+                    .tags(tags)
+                    .register(registry);
+            transformations = Counter.builder("sudoku.generation.transformed")
+                    .description("Puzzles derived from a base puzzle by a transformation")
+                    .tags(tags)
+                    .register(registry);
+        }
+
+        private static DistributionSummary nodes(MeterRegistry registry, Tags tags, String phase) {
+            return DistributionSummary.builder("sudoku.generation.nodes")
+                    .description("Backtracking nodes visited per generated puzzle")
+                    .baseUnit("nodes")
+                    .tags(tags.and("phase", phase))
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.sudoku.backend.services;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranking of the players who solved one daily puzzle. Only the best result of every player is ranked.
+ * Faster times rank higher, then fewer errors, then earlier submissions.
+ */
+public class Leaderboard {
+    private static final Comparator<Entry> ORDER = Comparator.comparingLong(Entry::elapsedTime)
+            .thenComparingInt(Entry::errorCount)
+            .thenComparing(Entry::submittedAt)
+            .thenComparing(Entry::userId);
+
+    private final RankedSet<Entry> ranking = new RankedSet<>(ORDER);
+    private final Map<String, Entry> best = new HashMap<>();
+
+    /**
+     * Adds the result if it is the first or a better one of its player.
+     *
+     * @return The rank of the player's best result, starting at 1.
+     */
+    public synchronized int submit(Entry entry) {
+        Entry current = best.get(entry.userId());
+        if (current == null || ORDER.compare(entry, current) < 0) {
+            if (current != null) {
+                ranking.remove(current);
+            }
+            ranking.add(entry);
+            best.put(entry.userId(), entry);
+            current = entry;
+        }
+        return ranking.rank(current) + 1;
+    }
+
+    /**
+     * Returns the best k results in order.
+     */
+    public synchronized List<Ranked> top(int k) {
+        List<Entry> entries = ranking.first(k);
+        List<Ranked> top = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            top.add(Ranked.of(i + 1, entries.get(i)));
+        }
+        return top;
+    }
+
+    /**
+     * @return The ranked best result of the player or null if the player has not solved the puzzle.
+     */
+    public synchronized Ranked get(String userId) {
+        Entry entry = best.get(userId);
+        return entry != null ? Ranked.of(ranking.rank(entry) + 1, entry) : null;
+    }
+
+    public synchronized int size() {
+        return ranking.size();
+    }
+
+    public record Entry(String userId, String playerName, long elapsedTime, int errorCount, Instant submittedAt) {
+    }
+
+    public record Ranked(int rank, String playerName, long elapsedTime, int errorCount) {
+        private static Ranked of(int rank, Entry entry) {
+            return new Ranked(rank, entry.playerName(), entry.elapsedTime(), entry.errorCount());
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.sudoku.backend.services;
+
+import com.sudoku.backend.jpa.entities.Sudoku;
+import com.sudoku.backend.jpa.entities.SudokuMove;
+import com.sudoku.backend.jpa.repository.ContinueLaterRepository;
+import com.sudoku.backend.jpa.repository.SudokuMoveRepository;
+import com.sudoku.backend.jpa.repository.SudokuRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Append-only log of delta saves.
+ * <p>
+ * A delta save only appends the changed cells, the error count and the elapsed time of a game as one row instead of
+ * rewriting the whole sudoku. The current state of a game is its sudoku row (the snapshot) with all logged deltas
+ * applied in order. A scheduled job periodically folds the log into the snapshot and deletes the folded entries.
+ * Appending does not touch the saved game itself, so its last-modified time is only updated when the log is folded.
+ * <p>
+ * Every change is stored as the cell index in row order followed by the value. The index takes one byte for 9x9
+ * grids and two bytes (high byte first) for larger grids, whose up to 625 cells do not fit into one.
+ */
+@Component
+public class MoveLogService {
+    private static final Logger log = LogManager.getLogger(MoveLogService.class);
+
+    private final SudokuMoveRepository moveRepository;
+    private final SudokuRepository sudokuRepository;
+    private final ContinueLaterRepository continueLaterRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public MoveLogService(SudokuMoveRepository moveRepository, SudokuRepository sudokuRepository,
+                          ContinueLaterRepository continueLaterRepository, TransactionTemplate transactionTemplate) {
+        this.moveRepository = moveRepository;
+        this.sudokuRepository = sudokuRepository;
+        this.continueLaterRepository = continueLaterRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Appends a delta save to the log of a sudoku.
+     *
+     * @param size The number of rows of the sudoku's grid.
+     * @throws IllegalArgumentException If a cell or a value is out of range.
+     */
+    public void append(int sudokuId, int size, Delta delta) {
+        List<CellChange> cells = delta.cells() != null ? delta.cells() : List.of();
+        int width = changeWidth(size);
+        byte[] changes = new byte[cells.size() * width];
+        for (int i = 0; i < cells.size(); i++) {
+            CellChange cell = cells.get(i);
+            if (cell.x() < 0 || cell.x() >= size || cell.y() < 0 || cell.y() >= size
+                    || cell.value() < 0 || cell.value() > size) {
+                throw new IllegalArgumentException("Invalid cell: (" + cell.x() + ", " + cell.y() + ") = " + cell.value());
+            }
+            int index = cell.x() * size + cell.y();
+            int offset = i * width;
+            if (width == 3) {
+                changes[offset++] = (byte) (index >>> 8);
+            }
+            changes[offset++] = (byte) index;
+            changes[offset] = (byte) cell.value();
+        }
+        moveRepository.save(new SudokuMove(sudokuId, changes, delta.errorCount(), delta.elapsedTime()));
+    }
+
+    /**
+     * Applies all logged deltas of the sudoku to it. The sudoku is only changed in memory.
+     *
+     * @return The given sudoku.
+     */
+    public Sudoku replay(Sudoku sudoku) {
+        apply(sudoku, moveRepository.findBySudokuIdOrderByIdAsc(sudoku.getId()));
+        return sudoku;
+    }
+
+    /**
+     * Deletes the whole log of a sudoku, e.g. when the sudoku itself is replaced or deleted.
+     */
+    public void discard(int sudokuId) {
+        moveRepository.deleteAllBySudokuId(sudokuId);
+    }
+
+    /**
+     * Folds the logs of all sudokus into their snapshots.
+     */
+    @Scheduled(fixedDelayString = "${sudoku.move-log.compaction-interval:PT1M}")
+    public void compactAll() {
+        for (Integer sudokuId : moveRepository.findSudokuIdsWithMoves()) {
+            try {
+                compact(sudokuId);
+            } catch (Exception e) {
+                log.error(e);
+            }
+        }
+    }
+
+    /**
+     * Folds the log of one sudoku into its snapshot and deletes the folded entries in a single transaction.
+     * Only the entries which were read are deleted, so entries which were not visible yet, because they were appended
+     * while compacting or their insert committed after one with a higher id, stay in the log for the next run.
+     */
+    public void compact(int sudokuId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Lock the snapshot first, so a concurrent full save cannot replace it between reading the log and folding it.
+            Optional<Sudoku> sudoku = sudokuRepository.findForUpdateById(sudokuId);
+            List<SudokuMove> moves = moveRepository.findBySudokuIdOrderByIdAsc(sudokuId);
+            if (moves.isEmpty()) {
+                return;
+            }
+            if (sudoku.isPresent()) {
+                apply(sudoku.get(), moves);
+                sudokuRepository.save(sudoku.get());
+                continueLaterRepository.updateLastModifiedBySudokuId(sudokuId, Instant.now());
+            }
+            moveRepository.deleteByIdIn(moves.stream().map(SudokuMove::getId).toList());
+        });
+    }
+
+    private void apply(Sudoku sudoku, List<SudokuMove> moves) {
+        if (moves.isEmpty()) {
+            return;
+        }
+        int size = sudoku.getBoxSize() * sudoku.getBoxSize();
+        int width = changeWidth(size);
+        int[][] progress = sudoku.getProgress() != null ? sudoku.getProgress() : new int[size][size];
+        for (SudokuMove move : moves) {
+            byte[] changes = move.getChanges();
+            for (int i = 0; i + width - 1 < changes.length; i += width) {
+                int index = width == 3 ? (changes[i] & 0xFF) << 8 | changes[i + 1] & 0xFF : changes[i] & 0xFF;
+                progress[index / size][index % size] = changes[i + width - 1];
+            }
+            sudoku.setErrorCount(move.getErrorCount());
+            sudoku.setElapsedTime(move.getElapsedTime());
+        }
+        sudoku.setProgress(progress);
+    }
+
+    /**
+     * The number of bytes of one change in a grid with the given number of rows.
+     */
+    private static int changeWidth(int size) {
+        return size * size > 256 ? 3 : 2;
+    }
+
+    public record CellChange(int x, int y, int value) {
+    }
+
+    /**
+     * The cells of a saved game changed since the last save together with the current error count and elapsed time.
+     *
+     * @param sudokuId The id of the saved game.
+     */
+    public record Delta(int sudokuId, List<CellChange> cells, int errorCount, long elapsedTime) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.sudoku.backend.services;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sudoku.backend.jpa.entities.Sudoku;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.SplittableRandom;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Writes generated sudokus as newline delimited JSON, one puzzle per line.
+ * <p>
+ * Puzzles are generated one at a time on the {@link GenerationExecutor} and flushed as soon as they are written,
+ * so memory use does not depend on the count. When the client goes away, the next write fails and the export stops
+ * generating. If the generation queue is full, the export waits instead of failing, which lets interactive
+ * requests go first.
+ * <p>
+ * All seeds are drawn from the seed of the export, so the same export seed always produces the same puzzles.
+ */
+@Component
+public class PuzzleExporter {
+    private final SudokuService sudokuService;
+    private final GenerationExecutor generationExecutor;
+    private final ObjectMapper objectMapper;
+    private final int maxCount;
+
+    public PuzzleExporter(SudokuService sudokuService, GenerationExecutor generationExecutor, ObjectMapper objectMapper,
+                          @Value("${sudoku.export.max-count:100000}") int maxCount) {
+        this.sudokuService = sudokuService;
+        this.generationExecutor = generationExecutor;
+        this.objectMapper = objectMapper;
+        this.maxCount = maxCount;
+    }
+
+    public int getMaxCount() {
+        return maxCount;
+    }
+
+    /**
+     * Generates and writes count puzzles.
+     *
+     * @param compact If true, the grids are written as 81 digit strings instead of nested arrays.
+     * @throws IOException If writing fails, e.g. because the client disconnected.
+     */
+    public void export(SudokuService.Difficulty difficulty, int count, long seed, boolean compact, OutputStream out)
+            throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < count; i++) {
+            Sudoku sudoku = generate(difficulty, random.nextLong());
+            Object line = compact ? new CompactSudoku(sudoku.getSeed(), sudoku.getDifficulty(),
+                    sudoku.getSudokuGrid().toDigits(), sudoku.getSolutionGrid().toDigits()) : sudoku;
+            out.write(objectMapper.writeValueAsBytes(line));
+            out.write('\n');
+            out.flush();
+        }
+    }
+
+    private Sudoku generate(SudokuService.Difficulty difficulty, long seed) throws IOException {
+        while (true) {
+            try {
+                return generationExecutor.call(() -> sudokuService.newSudoku(difficulty, seed));
+            } catch (RejectedExecutionException e) {
+                try {
+                    Thread.sleep(generationExecutor.getRetryAfter().toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the generation queue");
+                }
+            }
+        }
+    }
+
+    /**
+     * Export line with the grids as 81 digits in row order, 0 for empty cells.
+     */
+    public record CompactSudoku(@JsonFormat(shape = JsonFormat.Shape.STRING) Long seed,
+                                SudokuService.Difficulty difficulty, String sudoku, String solution) {
+    }
+}
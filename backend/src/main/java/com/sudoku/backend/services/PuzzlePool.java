@@ -0,0 +1,172 @@
+package com.sudoku.backend.services;
+
+import com.sudoku.backend.jpa.entities.Sudoku;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps a bounded queue of ready generated sudokus for every difficulty.
+ * <p>
+ * Requests take a puzzle from the queue and only generate one on the {@link GenerationExecutor} if the queue is empty.
+ * Whenever a queue drops to the low-water mark, it is refilled on the {@link GenerationExecutor} as well, one puzzle
+ * per task. At most the configured number of refill tasks are queued or running at a time, so refills never take
+ * more than a few places of the generation queue and requests waiting for a generation get in between them.
+ */
+@Component
+public class PuzzlePool {
+    private static final Logger log = LogManager.getLogger(PuzzlePool.class);
+
+    private final SudokuService sudokuService;
+    private final GenerationExecutor generationExecutor;
+    private final int capacity;
+    private final int lowWaterMark;
+    private final Map<SudokuService.Difficulty, Pool> pools = new EnumMap<>(SudokuService.Difficulty.class);
+    private final int maxRefills;
+    private final AtomicInteger refills = new AtomicInteger();
+
+    public PuzzlePool(SudokuService sudokuService, GenerationExecutor generationExecutor, MeterRegistry meterRegistry,
+                      @Value("${sudoku.pool.capacity:50}") int capacity,
+                      @Value("${sudoku.pool.low-water-mark:20}") int lowWaterMark,
+                      @Value("${sudoku.pool.max-refills:2}") int maxRefills) {
+        this.sudokuService = sudokuService;
+        this.generationExecutor = generationExecutor;
+        this.capacity = Math.max(capacity, 0);
+        this.lowWaterMark = Math.min(lowWaterMark, this.capacity);
+        this.maxRefills = Math.max(maxRefills, 1);
+        for (SudokuService.Difficulty difficulty : SudokuService.Difficulty.values()) {
+            Pool pool = new Pool(Math.max(this.capacity, 1));
+            pools.put(difficulty, pool);
+            register(meterRegistry, difficulty, pool);
+        }
+    }
+
+    /**
+     * Fills all pools once the application is up, so startup is not delayed by generation.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void fillAll() {
+        for (SudokuService.Difficulty difficulty : SudokuService.Difficulty.values()) {
+            refill(difficulty);
+        }
+    }
+
+    /**
+     * Takes a ready sudoku from the pool of the difficulty or generates one if the pool is empty.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException If the pool is empty and the generation queue is full.
+     */
+    public Sudoku take(SudokuService.Difficulty difficulty) {
+        Pool pool = pools.get(difficulty);
+        Sudoku sudoku = pool.queue.poll();
+        if (sudoku != null) {
+            pool.hits.increment();
+        } else {
+            pool.misses.increment();
+        }
+
+        if (pool.queue.size() <= lowWaterMark) {
+            refill(difficulty);
+        }
+        return sudoku != null ? sudoku : generationExecutor.call(() -> sudokuService.newSudoku(difficulty));
+    }
+
+    /**
+     * Convenience method for {@link #take(SudokuService.Difficulty)}.
+     */
+    public Sudoku take(String difficulty) {
+        return take(SudokuService.Difficulty.valueOf(difficulty.toUpperCase()));
+    }
+
+    /**
+     * Schedules background generations for the pool until it is full or the maximum number of refills is reached.
+     * Every finished refill schedules the next ones, so the pools keep filling up without waiting for a request.
+     * A full generation queue stops the refill, the next request taking a puzzle starts it again.
+     */
+    private void refill(SudokuService.Difficulty difficulty) {
+        Pool pool = pools.get(difficulty);
+        while (pool.queue.size() + pool.pending.get() < capacity) {
+            int running = refills.get();
+            if (running >= maxRefills) {
+                return;
+            }
+            if (!refills.compareAndSet(running, running + 1)) {
+                continue;
+            }
+            pool.pending.incrementAndGet();
+            try {
+                generationExecutor.execute(() -> generate(difficulty, pool));
+            } catch (RejectedExecutionException e) {
+                pool.pending.decrementAndGet();
+                refills.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private void generate(SudokuService.Difficulty difficulty, Pool pool) {
+        try {
+            Sudoku sudoku = sudokuService.newSudoku(difficulty);
+            // Computed off the request path, so checking a taken puzzle against the played ones is only a lookup.
+            sudoku.updateCanonicalHash();
+            pool.queue.offer(sudoku);
+        } catch (Exception e) {
+            log.error(e);
+            return;
+        } finally {
+            pool.pending.decrementAndGet();
+            refills.decrementAndGet();
+        }
+        fillAll();
+    }
+
+    private void register(MeterRegistry meterRegistry, SudokuService.Difficulty difficulty, Pool pool) {
+        Tags tags = Tags.of("difficulty", difficulty.name());
+        Gauge.builder("sudoku.pool.size", pool.queue, BlockingQueue::size)
+                .description("Ready puzzles in the pool")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("sudoku.pool.capacity", () -> capacity)
+                .description("Puzzles the pool is refilled up to")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("sudoku.pool.pending", pool.pending, AtomicInteger::get)
+                .description("Puzzles being generated to refill the pool")
+                .tags(tags)
+                .register(meterRegistry);
+        FunctionCounter.builder("sudoku.pool.takes", pool.hits, LongAdder::sum)
+                .description("Puzzles taken from the pool or generated because it was empty")
+                .tags(tags.and("result", "hit"))
+                .register(meterRegistry);
+        FunctionCounter.builder("sudoku.pool.takes", pool.misses, LongAdder::sum)
+                .description("Puzzles taken from the pool or generated because it was empty")
+                .tags(tags.and("result", "miss"))
+                .register(meterRegistry);
+    }
+
+    private static final class Pool {
+        private final BlockingQueue<Sudoku> queue;
+        private final AtomicInteger pending = new AtomicInteger();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        private Pool(int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+}
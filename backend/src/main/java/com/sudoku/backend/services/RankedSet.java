@@ -0,0 +1,151 @@
+package com.sudoku.backend.services;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Sorted set which also answers for the position of an element.
+ * <p>
+ * It is a treap whose nodes know the size of their subtree, so adding, removing and ranking an element take
+ * O(log n) expected time and the first k elements are found in O(log n + k). It is not thread-safe.
+ */
+final class RankedSet<E> {
+    private final Comparator<? super E> comparator;
+    private final SplittableRandom random = new SplittableRandom();
+    private Node<E> root;
+
+    RankedSet(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * Adds the element. Elements that compare equal to one in the set are added as well, the comparator is expected to
+     * tell all elements apart.
+     */
+    void add(E element) {
+        Node<E>[] parts = split(root, element, false);
+        root = merge(merge(parts[0], new Node<>(element, random.nextInt())), parts[1]);
+    }
+
+    /**
+     * Removes one element comparing equal to the given one.
+     *
+     * @return True if an element was removed.
+     */
+    boolean remove(E element) {
+        Node<E>[] lower = split(root, element, false);
+        Node<E>[] equal = split(lower[1], element, true);
+        boolean removed = equal[0] != null;
+        if (removed) {
+            equal[0] = merge(equal[0].left, equal[0].right);
+        }
+        root = merge(lower[0], merge(equal[0], equal[1]));
+        return removed;
+    }
+
+    /**
+     * Returns the number of elements ordered before the given one.
+     */
+    int rank(E element) {
+        int rank = 0;
+        Node<E> node = root;
+        while (node != null) {
+            if (comparator.compare(element, node.value) <= 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Returns the first k elements in order.
+     */
+    List<E> first(int k) {
+        List<E> result = new ArrayList<>(Math.min(Math.max(k, 0), size()));
+        Deque<Node<E>> stack = new ArrayDeque<>();
+        Node<E> node = root;
+        while (result.size() < k && (node != null || !stack.isEmpty())) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+            node = stack.pop();
+            result.add(node.value);
+            node = node.right;
+        }
+        return result;
+    }
+
+    /**
+     * Splits the tree into the elements before the pivot and the rest. With inclusive set, elements comparing equal to
+     * the pivot go to the first part.
+     */
+    @SuppressWarnings("unchecked")
+    private Node<E>[] split(Node<E> node, E pivot, boolean inclusive) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        int cmp = comparator.compare(node.value, pivot);
+        if (cmp < 0 || inclusive && cmp == 0) {
+            Node<E>[] parts = split(node.right, pivot, inclusive);
+            node.right = parts[0];
+            node.update();
+            parts[0] = node;
+            return parts;
+        }
+        Node<E>[] parts = split(node.left, pivot, inclusive);
+        node.left = parts[1];
+        node.update();
+        parts[1] = node;
+        return parts;
+    }
+
+    private Node<E> merge(Node<E> left, Node<E> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static int size(Node<?> node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static final class Node<E> {
+        private final E value;
+        private final int priority;
+        private int size = 1;
+        private Node<E> left;
+        private Node<E> right;
+
+        private Node(E value, int priority) {
+            this.value = value;
+            this.priority = priority;
+        }
+
+        private void update() {
+            size = 1 + size(left) + size(right);
+        }
+    }
+}
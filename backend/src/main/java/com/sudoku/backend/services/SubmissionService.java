@@ -0,0 +1,205 @@
+package com.sudoku.backend.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sudoku.backend.generator.models.Grid;
+import com.sudoku.backend.jpa.entities.DailySudoku;
+import com.sudoku.backend.jpa.entities.Submission;
+import com.sudoku.backend.jpa.repository.SubmissionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Checks solved daily puzzles and ranks them per day and difficulty.
+ * <p>
+ * Only today's puzzles are accepted. The time of a ranked result is measured by the server, from the moment the player
+ * started the daily puzzle to the submission, so players cannot report a time of their own. Starts are kept in memory
+ * for two days, long enough for any puzzle started before the rollover, up to a configured number of them.
+ * <p>
+ * The leaderboards live in memory and are loaded from the database the first time they are used. Correct submissions
+ * are ranked right away, but only queued for persistence; a scheduled job writes the queue in batches, so a burst of
+ * submissions does not cost one insert per request. Leaderboards that were not used for a while, or beyond the
+ * configured number of them, are dropped from memory.
+ */
+@Component
+public class SubmissionService {
+    private static final Logger log = LogManager.getLogger(SubmissionService.class);
+
+    private final DailySudokuService dailySudokuService;
+    private final SubmissionRepository repository;
+    private final Cache<Key, Leaderboard> leaderboards;
+    private final Cache<Start, Instant> starts;
+    private final BlockingQueue<Submission> pending;
+    private final int batchSize;
+
+    public SubmissionService(DailySudokuService dailySudokuService, SubmissionRepository repository,
+                             MeterRegistry meterRegistry,
+                             @Value("${sudoku.submissions.queue-capacity:10000}") int queueCapacity,
+                             @Value("${sudoku.submissions.batch-size:500}") int batchSize,
+                             @Value("${sudoku.submissions.leaderboard-idle-timeout:1d}") Duration leaderboardIdleTimeout,
+                             @Value("${sudoku.submissions.leaderboard-maximum-size:64}") long leaderboardMaximumSize,
+                             @Value("${sudoku.submissions.start-maximum-size:100000}") long startMaximumSize) {
+        this.dailySudokuService = dailySudokuService;
+        this.repository = repository;
+        this.leaderboards = Caffeine.newBuilder()
+                .maximumSize(leaderboardMaximumSize)
+                .expireAfterAccess(leaderboardIdleTimeout)
+                .recordStats()
+                .build();
+        this.starts = Caffeine.newBuilder()
+                .maximumSize(startMaximumSize)
+                .expireAfterWrite(Duration.ofDays(2))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, leaderboards, "leaderboards");
+        CaffeineCacheMetrics.monitor(meterRegistry, starts, "daily-starts");
+        this.pending = new ArrayBlockingQueue<>(Math.max(queueCapacity, 1));
+        this.batchSize = Math.max(batchSize, 1);
+    }
+
+    /**
+     * Starts the clock of the player for today's daily puzzle of the difficulty. Starting it again keeps the first start.
+     *
+     * @return The start of the player.
+     */
+    public Instant start(String userId, SudokuService.Difficulty difficulty) {
+        return starts.get(new Start(userId, dailySudokuService.today(), difficulty), start -> Instant.now());
+    }
+
+    /**
+     * Checks the solved grid against the daily puzzle and ranks it if the player is known, with the time since the
+     * player started the puzzle.
+     *
+     * @param userId     The subject of the player or null for anonymous players, whose results are checked but not ranked.
+     * @param playerName The name shown on the leaderboard.
+     * @param day        The day of the daily puzzle, which must be today.
+     * @return The result or null if there is no daily puzzle for the day.
+     * @throws IllegalArgumentException   If the day is not today, the grid is missing or not a valid 9x9 grid, or the
+     *                                    error count is negative.
+     * @throws IllegalStateException      If the known player did not start the daily puzzle.
+     * @throws RejectedExecutionException If too many submissions are waiting to be persisted.
+     */
+    public Result submit(String userId, String playerName, LocalDate day, SudokuService.Difficulty difficulty,
+                         int[][] grid, int errorCount) {
+        if (!day.equals(dailySudokuService.today())) {
+            throw new IllegalArgumentException("Only the daily puzzles of today can be submitted");
+        }
+        if (grid == null) {
+            throw new IllegalArgumentException("The solved grid is missing");
+        }
+        if (errorCount < 0) {
+            throw new IllegalArgumentException("errorCount must not be negative");
+        }
+        DailySudoku daily = dailySudokuService.get(day, difficulty);
+        if (daily == null) {
+            return null;
+        }
+        if (!daily.getSolution().equals(Grid.of(grid))) {
+            return new Result(false, null);
+        }
+        if (userId == null) {
+            return new Result(true, null);
+        }
+
+        Instant startedAt = starts.getIfPresent(new Start(userId, day, difficulty));
+        if (startedAt == null) {
+            throw new IllegalStateException("The daily puzzle was not started");
+        }
+        Instant now = Instant.now();
+        Submission submission = new Submission(day, difficulty, userId, playerName,
+                Duration.between(startedAt, now).toMillis(), errorCount, now);
+        if (!pending.offer(submission)) {
+            throw new RejectedExecutionException("Too many submissions are waiting to be persisted");
+        }
+        Leaderboard leaderboard = getLeaderboard(day, difficulty);
+        leaderboard.submit(toEntry(submission));
+        return new Result(true, leaderboard.get(userId));
+    }
+
+    /**
+     * Returns the best k results of the daily puzzle.
+     *
+     * @throws IllegalArgumentException If the day is in the future.
+     */
+    public List<Leaderboard.Ranked> top(LocalDate day, SudokuService.Difficulty difficulty, int k) {
+        return getLeaderboard(day, difficulty).top(k);
+    }
+
+    /**
+     * @return The ranked best result of the player or null if the player has not solved the daily puzzle.
+     * @throws IllegalArgumentException If the day is in the future.
+     */
+    public Leaderboard.Ranked get(LocalDate day, SudokuService.Difficulty difficulty, String userId) {
+        return getLeaderboard(day, difficulty).get(userId);
+    }
+
+    /**
+     * Writes all queued submissions in batches.
+     */
+    @Scheduled(fixedDelayString = "${sudoku.submissions.flush-interval:PT1S}")
+    public void flush() {
+        List<Submission> batch = new ArrayList<>(batchSize);
+        while (pending.drainTo(batch, batchSize) > 0) {
+            try {
+                repository.saveAll(batch);
+            } catch (Exception e) {
+                log.error(e);
+                // Keep the batch for the next run instead of losing it.
+                batch.forEach(pending::offer);
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private Leaderboard getLeaderboard(LocalDate day, SudokuService.Difficulty difficulty) {
+        if (day.isAfter(dailySudokuService.today())) {
+            throw new IllegalArgumentException("There are no results for days in the future");
+        }
+        return leaderboards.get(new Key(day, difficulty), key -> {
+            Leaderboard leaderboard = new Leaderboard();
+            for (Submission submission : repository.findByDayAndDifficulty(key.day(), key.difficulty())) {
+                leaderboard.submit(toEntry(submission));
+            }
+            return leaderboard;
+        });
+    }
+
+    private static Leaderboard.Entry toEntry(Submission submission) {
+        return new Leaderboard.Entry(submission.getUserId(), submission.getPlayerName(), submission.getElapsedTime(),
+                submission.getErrorCount(), submission.getSubmittedAt());
+    }
+
+    /**
+     * @param correct True if the grid is the solution of the daily puzzle.
+     * @param ranked  The best ranked result of the player or null if the grid is wrong or the player is anonymous.
+     */
+    public record Result(boolean correct, Leaderboard.Ranked ranked) {
+    }
+
+    private record Key(LocalDate day, SudokuService.Difficulty difficulty) {
+    }
+
+    private record Start(String userId, LocalDate day, SudokuService.Difficulty difficulty) {
+    }
+}
@@ -2,76 +2,112 @@ package com.sudoku.backend.services;
 
 import com.sudoku.backend.jpa.entities.ContinueLater;
 import com.sudoku.backend.jpa.entities.Sudoku;
+import com.sudoku.backend.jpa.projections.SavedGameSummary;
 import com.sudoku.backend.jpa.repository.ContinueLaterRepository;
 import com.sudoku.backend.jpa.repository.SudokuRepository;
+import com.sudoku.backend.generator.DancingLinksCounter;
+import com.sudoku.backend.generator.GridTransform;
+import com.sudoku.backend.generator.SolutionCounter;
+import com.sudoku.backend.generator.SudokuSolver;
 import com.sudoku.backend.generator.models.Cell;
+import com.sudoku.backend.generator.models.Grid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.random.RandomGenerator;
 
 @Component
 public class SudokuService {
     public enum Difficulty {
-        EASY,
-        MEDIUM,
-        HARD
-    }
-
-    private final SudokuRepository sudokuRepository;
-    private final ContinueLaterRepository continueLaterRepository;
+        EASY(35),
+        MEDIUM(45),
+        HARD(55);
 
-    public SudokuService(SudokuRepository sudokuRepository, ContinueLaterRepository continueLaterRepository) {
-        this.sudokuRepository = sudokuRepository;
-        this.continueLaterRepository = continueLaterRepository;
-    }
+        private final int cellsToRemove;
 
-    /**
-     * Checks if the value of a cell in the sudoku grid does not appear in the same line, row or subgrid.
-     *
-     * @param grid  The sudoku grid.
-     * @param cellX The x-coordinate of the cell.
-     * @param cellY The y-coordinate of the cell.
-     * @return True if the value of the cell does not appear again in the same line, row or subgrid or else false.
-     */
-    private boolean isCellValid(int[][] grid, int cellX, int cellY) {
-        int value = grid[cellX][cellY];
-
-        for (int i = 0; i < 9; i++) {
-            if (grid[i][cellY] == value && i != cellX && grid[i][cellY] != 0) {
-                return false;
-            }
+        Difficulty(int cellsToRemove) {
+            this.cellsToRemove = cellsToRemove;
         }
 
-        for (int i = 0; i < 9; i++) {
-            if (grid[cellX][i] == value && i != cellY && grid[cellX][i] != 0) {
-                return false;
-            }
+        /**
+         * The number of cells the generator tries to erase from the solution of a 9x9 grid.
+         */
+        public int getCellsToRemove() {
+            return cellsToRemove;
         }
 
-        int squareX = cellX / 3;
-        int squareY = cellY / 3;
-        for (int xoff = 0; xoff < 3; xoff++) {
-            for (int yoff = 0; yoff < 3; yoff++) {
-                int x = 3 * squareX + xoff;
-                int y = 3 * squareY + yoff;
-                if (!(x == cellX && y == cellY) && grid[x][y] == value && grid[x][y] != 0) {
-                    return false;
-                }
-            }
+        /**
+         * The number of cells the generator tries to erase from the solution of a grid with the box size, the same
+         * share of the cells as for a 9x9 grid.
+         */
+        public int getCellsToRemove(int boxSize) {
+            int size = boxSize * boxSize;
+            return cellsToRemove * size * size / Grid.CELLS;
         }
+    }
 
-        return true;
+    private final SudokuRepository sudokuRepository;
+    private final ContinueLaterRepository continueLaterRepository;
+    private final SudokuSolver solver;
+    private final SolutionCounter solutionCounter;
+    private final SolutionCounter largeGridCounter;
+    private final ActiveGameCache activeGames;
+    private final MoveLogService moveLog;
+    private final TransactionTemplate transactionTemplate;
+    private final GeneratorMetrics metrics;
+    private final GenerationExecutor generationExecutor;
+    private final int maxSavedGames;
+    // The base puzzles of every difficulty which is amplified by transformations.
+    private final Map<Difficulty, AtomicReferenceArray<Base>> bases = new EnumMap<>(Difficulty.class);
+    private final int usesPerBase;
+
+    public SudokuService(SudokuRepository sudokuRepository, ContinueLaterRepository continueLaterRepository,
+                         SudokuSolver solver, SolutionCounter solutionCounter, ActiveGameCache activeGames,
+                         MoveLogService moveLog, TransactionTemplate transactionTemplate, GeneratorMetrics metrics,
+                         GenerationExecutor generationExecutor,
+                         @Value("${sudoku.saved-games.max-per-user:10}") int maxSavedGames,
+                         @Value("${sudoku.amplification.difficulties:}") List<Difficulty> amplifiedDifficulties,
+                         @Value("${sudoku.amplification.base-puzzles:32}") int basePuzzles,
+                         @Value("${sudoku.amplification.uses-per-base:1000}") int usesPerBase,
+                         @Value("${sudoku.generator.large-grid-node-budget:100000}") long largeGridNodeBudget) {
+        this.sudokuRepository = sudokuRepository;
+        this.continueLaterRepository = continueLaterRepository;
+        this.solver = solver;
+        this.solutionCounter = solutionCounter;
+        // The bitmask search takes seconds for some uniqueness checks of larger grids, dancing links far less.
+        this.largeGridCounter = new DancingLinksCounter(largeGridNodeBudget);
+        this.activeGames = activeGames;
+        this.moveLog = moveLog;
+        this.transactionTemplate = transactionTemplate;
+        this.metrics = metrics;
+        this.generationExecutor = generationExecutor;
+        this.maxSavedGames = maxSavedGames;
+        for (Difficulty difficulty : amplifiedDifficulties) {
+            bases.put(difficulty, new AtomicReferenceArray<>(Math.max(basePuzzles, 1)));
+        }
+        this.usesPerBase = Math.max(usesPerBase, 1);
     }
 
-    /**
-     * Returns a random number in range of min and max (both included).
-     */
-    private int rndRange(int min, int max) {
-//        return min + random() % (1 + max - min);
-        return min + (int) (Math.random() * ((max - min) + 1));
+    private Sudoku activate(String userId, Sudoku sudoku) {
+        activeGames.put(userId, sudoku);
+        return sudoku;
     }
 
     /**
@@ -81,164 +117,62 @@ public class SudokuService {
      * @return True if the grid is valid, false otherwise.
      */
     private boolean isGridValid(int[][] grid) {
-        for (int x = 0; x < 9; x++) {
-            for (int y = 0; y < 9; y++) {
-                if (grid[x][y] == 0 || !isCellValid(grid, x, y)) {
-                    return false;
-                }
-            }
-        }
-        return true;
-    }
-
-    /**
-     * Tries to find all possible solutions for the sudoku by recursively trying out values to fill the grid without breaking the sudoku rules.
-     *
-     * @param grid  The sudoku grid (WARNING: This value will be modified during the runtime of the function but should be reverted back by the end.)
-     * @param cellX The x-coordinate of the cell.
-     * @param cellY The y-coordinate of the cell.
-     * @return The number of found solutions.
-     */
-    private int findAllSolutions(int[][] grid, int cellX, int cellY, int limit) {
-        int value = 1;
-        int solutions = 0;
-
-        Cell next = getNextFreeCell(grid, cellX, cellY);
-
-        while (value <= 9 && solutions < limit) {
-            grid[cellX][cellY] = value;
-            if (isCellValid(grid, cellX, cellY)) {
-                if (next == null) {
-                    solutions++;
-                } else {
-                    solutions += findAllSolutions(grid, next.getXCoordinate(), next.getYCoordinate(), limit - solutions);
-                }
-            }
-            value++;
-        }
-
-        grid[cellX][cellY] = 0;
-        return solutions;
-    }
-
-    /**
-     * Solves the sudoku grid by recursively trying out values to fill it without breaking the sudoku rules.
-     *
-     * @param grid  The sudoku grid. It will resemble the solved sudoku when the function has ended.
-     * @param cellX The x-coordinate of the cell.
-     * @param cellY The y-coordinate of the cell.
-     * @return The number of found solutions.
-     */
-    private boolean solve(int[][] grid, int cellX, int cellY) {
-        boolean valid = false;
-
-        // Initialize coordinates for the next cell and check for its existance.
-        Cell next = getNextFreeCell(grid, cellX, cellY);
-
-        // Check for each possible value if the grid is still valid
-        // then move on to the next cell and repeat.
-        int startValue = rndRange(0, 8);
-        for (int valueOff = 0; !valid && valueOff < 9; valueOff++) {
-            grid[cellX][cellY] = 1 + (startValue + valueOff) % 9;
-            valid = isCellValid(grid, cellX, cellY) && (next == null || solve(grid, next.getXCoordinate(), next.getYCoordinate()));
-        }
-
-        // Reset the cell value if all values have been invalid.
-        if (!valid) {
-            grid[cellX][cellY] = 0;
-        }
-
-        return valid;
-    }
-
-    /**
-     * Determines the next cell in the grid which contains the value 0 excluding the cell, which is indicated by cellX and cellY.
-     *
-     * @param grid  The sudoku grid which should be searched through.
-     * @param cellX Gets set to the x-coordinate of the next cell if one is found.
-     * @param cellY Gets set to the y-coordinate of the next cell if one is found.
-     * @return A new Cell if a free cell is found or else null.
-     */
-    private Cell getNextFreeCell(int[][] grid, int cellX, int cellY) {
-        for (int yOff = 0; yOff < 9; yOff++) {
-            for (int xOff = 0; xOff < 9; xOff++) {
-                int x = (cellX + xOff) % 9;
-                int y = (cellY + yOff) % 9;
-
-                if (grid[x][y] == 0) {
-                    return new Cell(x, y);
-                }
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Determines the next cell in the grid which does not contain the value 0 excluding the cell, which is indicated by cellX and cellY.
-     * Returns the coordinates of the cell through cellX and cellY.
-     *
-     * @param grid  The sudoku grid which should be searched through.
-     * @param cellX Gets set to the x-coordinate of the next cell if one is found.
-     * @param cellY Gets set to the y-coordinate of the next cell if one is found.
-     * @return True if a free cell is found of else false.
-     */
-    private Cell getNextFilledCell(int[][] grid, int cellX, int cellY) {
-        for (int yOff = 0; yOff < 9; yOff++) {
-            for (int xOff = 0; xOff < 9; xOff++) {
-                int x = (cellX + xOff) % 9;
-                int y = (cellY + yOff) % 9;
-
-                if (grid[x][y] != 0) {
-                    return new Cell(x, y);
-                }
-            }
-        }
-        return null;
+        return solver.isGridValid(grid);
     }
 
     /**
      * Fills the initial grid with correct values.
      * Then erases cell values depending on the difficulty parameter while still making sure that there is only one solution to the sudoku grid.
+     * Uniqueness checks of grids larger than 9x9 use dancing links with a node budget. A check which runs out of it
+     * keeps the cell, so such grids may keep more clues than their difficulty asks for.
      *
      * @param grid       The sudoku grid which will contain the generated values at the end of the function.
+     *                   Its number of rows determines the size of the puzzle.
      * @param difficulty The difficulty of the puzzle determines how many cells will be erased after generation.
+     * @param random     The source used for filling the grid and for the order in which cells are erased.
+     * @return How the cell removal went, for the generator metrics.
      */
-    private void generateGrid(int[][] grid, Difficulty difficulty) {
-        int startX = rndRange(0, 8);
-        int startY = rndRange(0, 8);
+    private Removal generateGrid(int[][] grid, Difficulty difficulty, RandomGenerator random) {
+        int size = grid.length;
+        int attempts = 0;
+        int removed = 0;
+        int target = difficulty.getCellsToRemove(Grid.boxSizeOf(size));
+        long nodes = 0;
 
         // Fill out the whole grid with one solution
-        if (solve(grid, startX, startY)) {
+        if (solver.solve(grid, random)) {
             List<Cell> cells = new ArrayList<>();
-            for (int x = 0; x < 9; x++) {
-                for (int y = 0; y < 9; y++) {
+            for (int x = 0; x < size; x++) {
+                for (int y = 0; y < size; y++) {
                     cells.add(new Cell(x, y));
                 }
             }
-            Collections.shuffle(cells);
-
-            int removed = 0;
-            int target = switch (difficulty) {
-                case EASY -> 35;
-                case MEDIUM -> 45;
-                case HARD -> 55;
-            };
+            Collections.shuffle(cells, random);
 
+            SolutionCounter counter = size == Grid.SIZE ? solutionCounter : largeGridCounter;
+            SolutionCounter.Session session = counter.open(grid);
             for (Cell cell : cells) {
                 int x = cell.getXCoordinate();
                 int y = cell.getYCoordinate();
 
                 int backup = grid[x][y];
                 grid[x][y] = 0;
+                session.removeClue(x, y);
+                attempts++;
 
-                if (findAllSolutions(grid, 0, 0, 2) != 1) {
+                if (session.countSolutions(2) != 1) {
                     grid[x][y] = backup; // revert
+                    session.restoreClue(x, y, backup);
+                    // An interrupted check stops the removal, the grid is still a valid puzzle with a unique solution.
+                    if (Thread.currentThread().isInterrupted()) break;
                 } else {
                     removed++;
                     if (removed >= target) break;
                 }
             }
+            nodes = session.nodeCount();
         }
+        return new Removal(attempts, removed, target, nodes);
     }
 
     private int[][] emptyGrid(int rows, int cols) {
@@ -246,29 +180,142 @@ public class SudokuService {
     }
 
     private int[][] dupe(int[][] grid) {
-        int[][] duplicate = emptyGrid(9, 9);
-        for (int i = 0; i < 9; i++) {
-            System.arraycopy(grid[i], 0, duplicate[i], 0, 9);
+        int size = grid.length;
+        int[][] duplicate = emptyGrid(size, size);
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(grid[i], 0, duplicate[i], 0, size);
         }
         return duplicate;
     }
 
     /**
-     * Initializes a new game by generating the grids according to the difficulty.
+     * Initializes a new game by generating the grids according to the difficulty from a random seed.
+     * If the difficulty is amplified, the game is a randomly transformed copy of one of its base puzzles instead,
+     * see {@link #transformedSudoku(Difficulty)}.
      */
     public Sudoku newSudoku(Difficulty difficulty) {
+        if (bases.containsKey(difficulty)) {
+            return transformedSudoku(difficulty);
+        }
+        return newSudoku(difficulty, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Initializes a new game of the box size, e.g. 4 for a 16x16 grid, from a random seed.
+     *
+     * @throws IllegalArgumentException If the box size is not supported.
+     */
+    public Sudoku newSudoku(Difficulty difficulty, int boxSize) {
+        if (boxSize == Grid.MIN_BOX_SIZE) {
+            return newSudoku(difficulty);
+        }
+        return newSudoku(difficulty, boxSize, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Derives a new game from one of the base puzzles of the difficulty by a random {@link GridTransform}, which
+     * takes a single pass over the grids instead of a full generation. A base puzzle is generated when its slot is
+     * still empty and replaced after it was used the configured number of times, so the games do not all come from
+     * the same few puzzles. Transformed games have no seed, so they are saved with their grids.
+     */
+    private Sudoku transformedSudoku(Difficulty difficulty) {
+        AtomicReferenceArray<Base> slots = bases.get(difficulty);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int slot = random.nextInt(slots.length());
+        Base base = slots.get(slot);
+        if (base == null || base.uses().incrementAndGet() > usesPerBase) {
+            Sudoku generated = newSudoku(difficulty, random.nextLong());
+            // An interrupted generation may have kept too many clues, it is returned but not used as a base.
+            if (generated.getSeed() == null) {
+                return generated;
+            }
+            base = new Base(generated.getSudoku(), generated.getSolution(), new AtomicInteger(1));
+            slots.set(slot, base);
+        }
+
+        GridTransform transform = GridTransform.random(random);
+        Sudoku transformed = new Sudoku();
+        transformed.setSudoku(transform.apply(base.sudoku()));
+        transformed.setSolution(transform.apply(base.solution()));
+        transformed.setDifficulty(difficulty);
+        metrics.recordTransformation(difficulty);
+        return transformed;
+    }
+
+    /**
+     * Initializes a new game by generating the grids according to the difficulty.
+     * The same seed and difficulty always result in the same puzzle, so a game can be restored from both of them.
+     * If the thread is interrupted, the cell removal stops early and the puzzle is returned without its seed.
+     * WARNING: Any change to the generator which alters the consumed random values or the order of the search
+     * breaks the grids of games which were saved by their seed. Only 9x9 games are saved by their seed: which cells
+     * a larger grid keeps also depends on the node budget of its uniqueness checks
+     * ({@code sudoku.generator.large-grid-node-budget}), so they are saved with their grids.
+     */
+    public Sudoku newSudoku(Difficulty difficulty, long seed) {
+        return newSudoku(difficulty, Grid.MIN_BOX_SIZE, seed);
+    }
+
+    /**
+     * Initializes a new game of the box size like {@link #newSudoku(Difficulty, long)}.
+     *
+     * @throws IllegalArgumentException If the box size is not supported.
+     */
+    public Sudoku newSudoku(Difficulty difficulty, int boxSize, long seed) {
+        return generate(difficulty, boxSize, seed, true);
+    }
+
+    /**
+     * Generates the grids of the seed.
+     *
+     * @param record False for grids which are only restored, so the generator metrics only count new puzzles.
+     */
+    private Sudoku generate(Difficulty difficulty, int boxSize, long seed, boolean record) {
+        if (boxSize < Grid.MIN_BOX_SIZE || boxSize > Grid.MAX_BOX_SIZE) {
+            throw new IllegalArgumentException("Box sizes must be between " + Grid.MIN_BOX_SIZE + " and "
+                    + Grid.MAX_BOX_SIZE + " but got " + boxSize);
+        }
+        long start = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(seed);
         Sudoku newSudoku = new Sudoku();
-        int[][] solution = emptyGrid(9, 9);
-        solve(solution, rndRange(0, 8), rndRange(0, 8));
+        int[][] solution = emptyGrid(boxSize * boxSize, boxSize * boxSize);
+        long solveNodes = solver.nodeCount();
+        solver.solve(solution, random);
+        solveNodes = solver.nodeCount() - solveNodes;
         newSudoku.setSolution(solution);
 
         int[][] sudoku = dupe(solution);
-        generateGrid(sudoku, difficulty);
+        Removal removal = generateGrid(sudoku, difficulty, random);
         newSudoku.setSudoku(sudoku);
+        if (record) {
+            metrics.recordGeneration(difficulty, boxSize, System.nanoTime() - start, solveNodes, removal.nodes(),
+                    removal.attempts(), removal.removed(), removal.target());
+        }
 
+        // An interrupted generation stopped early, so the seed would not reproduce this puzzle.
+        if (!Thread.currentThread().isInterrupted()) {
+            newSudoku.setSeed(seed);
+        }
+        newSudoku.setDifficulty(difficulty);
         return newSudoku;
     }
 
+    /**
+     * Fills in the grids of a stored game which was saved by its seed. The generation runs on the
+     * {@link GenerationExecutor}, like every other one.
+     *
+     * @return The given sudoku.
+     * @throws java.util.concurrent.RejectedExecutionException If the generation queue is full.
+     */
+    private Sudoku regenerate(Sudoku sudoku) {
+        if (sudoku.getSudokuGrid() == null && sudoku.getSeed() != null && sudoku.getDifficulty() != null) {
+            Sudoku generated = generationExecutor.call(
+                    () -> generate(sudoku.getDifficulty(), sudoku.getBoxSize(), sudoku.getSeed(), false));
+            sudoku.setSudoku(generated.getSudoku());
+            sudoku.setSolution(generated.getSolution());
+        }
+        return sudoku;
+    }
+
     /**
      * Convenience method for {@link #newSudoku(Difficulty)}.
      */
@@ -277,55 +324,233 @@ public class SudokuService {
         return newSudoku(diff);
     }
 
+    /**
+     * Convenience method for {@link #newSudoku(Difficulty, int)}.
+     */
+    public Sudoku generateByDifficulty(String difficulty, int boxSize) {
+        Difficulty diff = SudokuService.Difficulty.valueOf(difficulty.toUpperCase());
+        return newSudoku(diff, boxSize);
+    }
+
+    /**
+     * Returns the canonical hashes of the user's saved games, to check several puzzles with
+     * {@link #isPlayed(Set, Sudoku)} against a single query.
+     */
+    public Set<Long> getPlayedHashes(String userId) {
+        return new HashSet<>(continueLaterRepository.findCanonicalHashesByUserId(userId));
+    }
+
+    /**
+     * Checks if the sudoku is equivalent to one of the played puzzles, by its canonical hash.
+     *
+     * @param playedHashes The hashes from {@link #getPlayedHashes(String)}.
+     */
+    public static boolean isPlayed(Set<Long> playedHashes, Sudoku sudoku) {
+        if (playedHashes.isEmpty()) {
+            return false;
+        }
+        sudoku.updateCanonicalHash();
+        return playedHashes.contains(sudoku.getCanonicalHash());
+    }
+
+    /**
+     * Lists the saved games of the user, most recently modified first, without loading their grids.
+     */
+    public Page<SavedGameSummary> listGames(String userId, Pageable pageable) {
+        return continueLaterRepository.findSummariesByUserId(userId, pageable);
+    }
+
+    /**
+     * Loads the user's most recently modified game with a single query and applies the logged delta saves to it.
+     */
     public Sudoku getSudokuToContinue(String userId) {
-        // TODO: needs to be adapted for multiple sudokus for later
-        Optional<ContinueLater> continueLater = continueLaterRepository.findByUserId(userId);
-        if (continueLater.isPresent() && continueLater.get().getSudokuId() != null) {
-            Optional<Sudoku> sudoku = sudokuRepository.findById(continueLater.get().getSudokuId());
-            if (sudoku.isPresent()) {
-                return sudoku.get();
-            } else {
-                continueLaterRepository.deleteById(continueLater.get().getId());
-            }
+        return open(userId, continueLaterRepository.findLatestWithSudokuByUserId(userId));
+    }
+
+    /**
+     * Loads one of the user's saved games and makes it the active game.
+     *
+     * @return The game or null if the user has no game with this id.
+     */
+    public Sudoku getGame(String userId, int sudokuId) {
+        return open(userId, continueLaterRepository.findWithSudokuByUserIdAndSudokuId(userId, sudokuId));
+    }
+
+    private Sudoku open(String userId, Optional<ContinueLater> continueLater) {
+        if (continueLater.isEmpty()) {
+            return null;
         }
-        return null;
+        Sudoku sudoku = continueLater.get().getSudoku();
+        if (sudoku == null) {
+            continueLaterRepository.deleteById(continueLater.get().getId());
+            return null;
+        }
+        return activate(userId, moveLog.replay(regenerate(sudoku)));
     }
 
+    /**
+     * Stores the sudoku for the user. A sudoku with the id of one of the user's saved games updates that game in place,
+     * any other sudoku is stored as a new game. This takes several statements in one transaction: loading the game,
+     * locking its sudoku row and writing both rows.
+     *
+     * @throws IllegalStateException If a new game would exceed the maximum number of saved games per user.
+     */
     public Sudoku saveForUser(String userId, Sudoku sudoku) {
-        // TODO: needs to be adapted for multiple sudokus for later
-        Optional<ContinueLater> optionalContinueLater = continueLaterRepository.findByUserId(userId);
-        if (optionalContinueLater.isEmpty()) {
-            // TODO: maybe make it transactional
-            Sudoku newSudoku = sudokuRepository.save(sudoku);
-            continueLaterRepository.save(new ContinueLater(userId, newSudoku.getId()));
-            return newSudoku;
-        } else {
-            // TODO: maybe make it transactional
-            ContinueLater continueLater = optionalContinueLater.get();
-            if (continueLater.getSudokuId() != null) {
-                sudokuRepository.deleteById(continueLater.getSudokuId());
+        // 9x9 games generated from a seed are stored without their grids, they are regenerated when loaded.
+        sudoku.updateCanonicalHash();
+        if (sudoku.getSeed() != null && sudoku.getDifficulty() != null && sudoku.getBoxSize() == Grid.MIN_BOX_SIZE) {
+            sudoku.setSudoku(null);
+            sudoku.setSolution(null);
+        }
+        Sudoku saved = null;
+        // A new game which lost the race for its slot is stored again in the next free one.
+        for (int attempt = 0; saved == null; attempt++) {
+            try {
+                saved = transactionTemplate.execute(status -> store(userId, sudoku));
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= maxSavedGames) {
+                    throw e;
+                }
             }
-            Sudoku newSudoku = sudokuRepository.save(sudoku);
-            continueLater.setSudokuId(newSudoku.getId());
-            continueLaterRepository.save(continueLater);
-            return newSudoku;
         }
+        return activate(userId, regenerate(saved));
     }
 
-    public Sudoku cancelSudokuToContinue(String userId) {
-        Optional<ContinueLater> continueLater = continueLaterRepository.findByUserId(userId);
-        if (continueLater.isEmpty()) {
+    private Sudoku store(String userId, Sudoku sudoku) {
+        ContinueLater continueLater = null;
+        if (sudoku.getId() != 0) {
+            continueLater = continueLaterRepository.findWithSudokuByUserIdAndSudokuId(userId, sudoku.getId()).orElse(null);
+        }
+        if (continueLater == null) {
+            // Every game takes one of the user's slots, the unique constraint on them rejects a concurrent new game
+            // which picked the same one.
+            List<Integer> slots = continueLaterRepository.findSlotsByUserId(userId);
+            if (slots.size() >= maxSavedGames) {
+                throw new IllegalStateException("Only " + maxSavedGames + " saved games are allowed");
+            }
+            int slot = 0;
+            while (slots.contains(slot)) {
+                slot++;
+            }
+            continueLater = new ContinueLater(userId, slot);
+        }
+
+        Sudoku stored = continueLater.getSudoku();
+        if (stored != null) {
+            // Wait for a running compaction of the move log, the full state replaces the log afterwards.
+            stored = sudokuRepository.findForUpdateById(stored.getId()).orElse(null);
+        }
+        if (stored == null) {
+            stored = new Sudoku();
+            continueLater.setSudoku(stored);
+        } else {
+            // The full state replaces everything that was logged so far.
+            moveLog.discard(stored.getId());
+        }
+        stored.setAll(sudoku);
+        continueLater.setLastModified(Instant.now());
+        continueLaterRepository.save(continueLater);
+        return stored;
+    }
+
+    /**
+     * Saves only the changes of one of the user's games by appending them to the move log.
+     *
+     * @return False if the user has no game with the id of the delta.
+     * @throws IllegalArgumentException If a cell or a value is out of range.
+     */
+    public boolean saveDeltaForUser(String userId, MoveLogService.Delta delta) {
+        ActiveGameCache.ActiveGame game = activeGame(userId, delta.sudokuId());
+        if (game == null) {
+            return false;
+        }
+        moveLog.append(game.sudokuId(), game.solution().size(), delta);
+        return true;
+    }
+
+    /**
+     * Checks a single move against the solution of one of the user's games.
+     * The solution is taken from the active game cache and only loaded from the database if another game is cached.
+     *
+     * @return True if the value is correct, false if it is not and null if the user has no game with this id.
+     * @throws IllegalArgumentException If the cell or the value is out of range.
+     */
+    public Boolean checkMove(String userId, int sudokuId, int cellX, int cellY, int value) {
+        ActiveGameCache.ActiveGame game = activeGame(userId, sudokuId);
+        if (game == null) {
             return null;
         }
-        Optional<Sudoku> sudoku = sudokuRepository.findById(continueLater.get().getSudokuId());
-        if (sudoku.isPresent()) {
-            sudokuRepository.deleteById(sudoku.get().getId());
-            continueLaterRepository.deleteById(continueLater.get().getId());
-            return sudoku.get();
+        int size = game.solution().size();
+        if (cellX < 0 || cellX >= size || cellY < 0 || cellY >= size || value < 1 || value > size) {
+            throw new IllegalArgumentException("Invalid move: (" + cellX + ", " + cellY + ") = " + value);
         }
-        else {
-            continueLaterRepository.deleteById(continueLater.get().getId());
+        return game.isCorrect(cellX, cellY, value);
+    }
+
+    /**
+     * Returns the cached game of the user if it has the id, otherwise loads the game and makes it the active one.
+     *
+     * @return The game or null if the user has no game with this id.
+     */
+    private ActiveGameCache.ActiveGame activeGame(String userId, int sudokuId) {
+        ActiveGameCache.ActiveGame game = activeGames.get(userId);
+        if (game != null && game.sudokuId() == sudokuId) {
+            return game;
+        }
+        if (getGame(userId, sudokuId) == null) {
             return null;
         }
+        game = activeGames.get(userId);
+        return game != null && game.sudokuId() == sudokuId ? game : null;
+    }
+
+    /**
+     * Deletes the active game of the user or, if there is none, the most recently modified one.
+     */
+    public Sudoku cancelSudokuToContinue(String userId) {
+        ActiveGameCache.ActiveGame game = activeGames.get(userId);
+        if (game != null) {
+            return deleteGame(userId, game.sudokuId());
+        }
+        return continueLaterRepository.findLatestWithSudokuByUserId(userId)
+                .map(continueLater -> continueLater.getSudoku() != null
+                        ? deleteGame(userId, continueLater.getSudoku().getId())
+                        : null)
+                .orElse(null);
+    }
+
+    /**
+     * Deletes one of the user's saved games together with its move log.
+     *
+     * @return The deleted game or null if the user has no game with this id.
+     */
+    public Sudoku deleteGame(String userId, int sudokuId) {
+        ActiveGameCache.ActiveGame game = activeGames.get(userId);
+        if (game != null && game.sudokuId() == sudokuId) {
+            activeGames.invalidate(userId);
+        }
+        return transactionTemplate.execute(status -> {
+            Optional<ContinueLater> continueLater = continueLaterRepository.findWithSudokuByUserIdAndSudokuId(userId, sudokuId);
+            if (continueLater.isEmpty()) {
+                return null;
+            }
+            continueLaterRepository.delete(continueLater.get());
+            moveLog.discard(sudokuId);
+            return continueLater.get().getSudoku();
+        });
+    }
+
+    /**
+     * A generated puzzle which new games of an amplified difficulty are transformed from.
+     *
+     * @param uses The number of games derived from it so far.
+     */
+    private record Base(int[][] sudoku, int[][] solution, AtomicInteger uses) {
+    }
+
+    /**
+     * Outcome of the cell-removal loop of one generated puzzle.
+     */
+    private record Removal(int attempts, int removed, int target, long nodes) {
     }
 }
@@ -1,32 +1,60 @@
 package com.sudoku.backend.services;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.sudoku.backend.jpa.entities.UserSettings;
 import com.sudoku.backend.jpa.repository.UserSettingsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.Optional;
 
 @Component
 public class UserSettingsService {
     private final UserSettingsRepository userSettingsRepository;
+    // Users without settings are cached as empty, so they do not hit the database on every load either.
+    private final Cache<String, Optional<UserSettings>> cache;
 
-    public UserSettingsService(UserSettingsRepository userSettingsRepository) {
+    public UserSettingsService(UserSettingsRepository userSettingsRepository, MeterRegistry meterRegistry,
+                               @Value("${sudoku.settings-cache.maximum-size:10000}") long maximumSize,
+                               @Value("${sudoku.settings-cache.ttl:10m}") Duration ttl) {
         this.userSettingsRepository = userSettingsRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user-settings");
     }
 
     public UserSettings getSettings(String userId) {
-        Optional<UserSettings> settings = userSettingsRepository.findByUserId(userId);
-        return settings.orElse(null);
+        return cache.get(userId, userSettingsRepository::findByUserId).orElse(null);
     }
 
+    /**
+     * Stores the settings and caches them once they are committed. Putting them replaces a value which a concurrent
+     * load may have read before the commit, an invalidation would let that stale value be cached afterwards.
+     */
     public UserSettings saveSettings(String userId, UserSettings userSettings) {
-        Optional<UserSettings> opSettings = userSettingsRepository.findByUserId(userId);
-        if (opSettings.isPresent()) {
-            UserSettings settings = opSettings.get();
-            settings.setAll(userSettings);
-            return userSettingsRepository.save(settings);
+        UserSettings saved;
+        try {
+            Optional<UserSettings> opSettings = userSettingsRepository.findByUserId(userId);
+            if (opSettings.isPresent()) {
+                UserSettings settings = opSettings.get();
+                settings.setAll(userSettings);
+                saved = userSettingsRepository.save(settings);
+            } else {
+                userSettings.setUserId(userId);
+                saved = userSettingsRepository.save(userSettings);
+            }
+        } catch (RuntimeException e) {
+            cache.invalidate(userId);
+            throw e;
         }
-        userSettings.setUserId(userId);
-        return userSettingsRepository.save(userSettings);
+        cache.put(userId, Optional.of(saved));
+        return saved;
     }
 }
@@ -0,0 +1,84 @@
+package com.sudoku.backend.generator;
+
+import com.sudoku.backend.generator.models.Grid;
+import com.sudoku.backend.jpa.entities.Sudoku;
+import com.sudoku.backend.services.SudokuService;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static com.sudoku.backend.services.GeneratorTestSupport.generator;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CanonicalizerTest {
+    private static final int PUZZLES = 10;
+    private static final int TRANSFORMS_PER_PUZZLE = 10;
+
+    private final SudokuService service = generator(new SudokuSolver());
+
+    @Test
+    void transformedCopiesShareTheCanonicalFormAndHash() {
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < PUZZLES; i++) {
+            Sudoku sudoku = service.newSudoku(SudokuService.Difficulty.MEDIUM, random.nextLong());
+            byte[] canonical = Canonicalizer.canonicalize(sudoku.getSudokuGrid(), sudoku.getSolutionGrid());
+            long hash = Canonicalizer.hash(sudoku.getSudokuGrid(), sudoku.getSolutionGrid());
+
+            for (int t = 0; t < TRANSFORMS_PER_PUZZLE; t++) {
+                GridTransform transform = GridTransform.random(random);
+                Grid puzzle = Grid.of(transform.apply(sudoku.getSudoku()));
+                Grid solution = Grid.of(transform.apply(sudoku.getSolution()));
+                assertArrayEquals(canonical, Canonicalizer.canonicalize(puzzle, solution));
+                assertEquals(hash, Canonicalizer.hash(puzzle, solution));
+            }
+        }
+    }
+
+    @Test
+    void differentPuzzlesGetDifferentHashes() {
+        Set<Long> hashes = new HashSet<>();
+        SplittableRandom random = new SplittableRandom(4);
+        for (int i = 0; i < PUZZLES; i++) {
+            Sudoku sudoku = service.newSudoku(SudokuService.Difficulty.HARD, random.nextLong());
+            hashes.add(Canonicalizer.hash(sudoku.getSudokuGrid(), sudoku.getSolutionGrid()));
+        }
+        assertEquals(PUZZLES, hashes.size());
+
+        // The same seed gives the same solution for every difficulty, only the clues tell these puzzles apart.
+        Sudoku easy = service.newSudoku(SudokuService.Difficulty.EASY, 1L);
+        Sudoku hard = service.newSudoku(SudokuService.Difficulty.HARD, 1L);
+        assertEquals(easy.getSolutionGrid(), hard.getSolutionGrid());
+        assertNotEquals(Canonicalizer.hash(easy.getSudokuGrid(), easy.getSolutionGrid()),
+                Canonicalizer.hash(hard.getSudokuGrid(), hard.getSolutionGrid()));
+    }
+
+    @Test
+    void hashOfAKnownPuzzleDoesNotChange() {
+        // Stored with saved games, so a different hash for the same puzzle breaks the played check of all of them.
+        Grid puzzle = parse("940075861080906250106008030405000018310800905008054320001089472270030080864007190");
+        Grid solution = parse("942375861783916254156248739425793618317862945698154327531689472279431586864527193");
+        assertEquals(-2480154951027094367L, Canonicalizer.hash(puzzle, solution));
+    }
+
+    @Test
+    void solutionsWhichDoNotMatchTheCluesAreRejected() {
+        Sudoku sudoku = service.newSudoku(SudokuService.Difficulty.EASY, 1L);
+        Sudoku other = service.newSudoku(SudokuService.Difficulty.EASY, 2L);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> Canonicalizer.hash(sudoku.getSudokuGrid(), other.getSolutionGrid()));
+    }
+
+    private static Grid parse(String digits) {
+        int[][] grid = new int[9][9];
+        for (int i = 0; i < digits.length(); i++) {
+            grid[i / 9][i % 9] = digits.charAt(i) - '0';
+        }
+        return Grid.of(grid);
+    }
+}
@@ -0,0 +1,94 @@
+package com.sudoku.backend.generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DancingLinksCounterTest {
+    private final SudokuSolver bitmask = new SudokuSolver();
+    private final DancingLinksCounter dlx = new DancingLinksCounter();
+
+    @Test
+    void countsMatchTheBitmaskSolver() {
+        for (int[][] grid : puzzles()) {
+            for (int limit : new int[]{1, 2, 10}) {
+                assertEquals(bitmask.countSolutions(grid, limit), dlx.countSolutions(grid, limit));
+            }
+        }
+    }
+
+    @Test
+    void sessionCountsMatchTheBitmaskSolver() {
+        int[][] grid = solved(3);
+        SolutionCounter.Session bitmaskSession = bitmask.open(grid);
+        SolutionCounter.Session dlxSession = dlx.open(grid);
+        SplittableRandom random = new SplittableRandom(4);
+        for (int i = 0; i < 60; i++) {
+            int x = random.nextInt(9);
+            int y = random.nextInt(9);
+            bitmaskSession.removeClue(x, y);
+            dlxSession.removeClue(x, y);
+            assertEquals(bitmaskSession.countSolutions(3), dlxSession.countSolutions(3));
+        }
+    }
+
+    @Test
+    void countsKnownCases() {
+        int[][] solution = solved(5);
+        assertEquals(1, dlx.countSolutions(solution, 2));
+        assertEquals(2, dlx.countSolutions(new int[9][9], 2));
+        assertEquals(0, dlx.countSolutions(conflicting(solution), 2));
+        assertEquals(0, dlx.countSolutions(unsolvable(), 2));
+        assertEquals(0, bitmask.countSolutions(unsolvable(), 2));
+    }
+
+    /**
+     * Puzzles with no, one and many solutions: solved grids with more and more clues removed, grids with two equal
+     * clues in a row and a grid without conflicting clues which still cannot be completed.
+     */
+    private List<int[][]> puzzles() {
+        List<int[][]> puzzles = new ArrayList<>();
+        SplittableRandom random = new SplittableRandom(6);
+        for (int seed = 0; seed < 10; seed++) {
+            int[][] grid = solved(seed);
+            puzzles.add(conflicting(grid));
+            for (int removed = 0; removed < 70; removed++) {
+                grid[random.nextInt(9)][random.nextInt(9)] = 0;
+                if (removed % 5 == 0) {
+                    puzzles.add(SudokuSolverTest.copy(grid));
+                }
+            }
+        }
+        puzzles.add(unsolvable());
+        puzzles.add(new int[9][9]);
+        return puzzles;
+    }
+
+    private int[][] solved(long seed) {
+        int[][] grid = new int[9][9];
+        bitmask.solve(grid, new SplittableRandom(seed));
+        return grid;
+    }
+
+    private static int[][] conflicting(int[][] grid) {
+        int[][] conflicting = SudokuSolverTest.copy(grid);
+        conflicting[0][1] = conflicting[0][0];
+        return conflicting;
+    }
+
+    /**
+     * The first row needs a 9 in its last cell, but the last column already has one.
+     */
+    private static int[][] unsolvable() {
+        int[][] grid = new int[9][9];
+        for (int y = 0; y < 8; y++) {
+            grid[0][y] = y + 1;
+        }
+        grid[4][8] = 9;
+        return grid;
+    }
+}
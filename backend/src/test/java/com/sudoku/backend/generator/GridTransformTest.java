@@ -0,0 +1,61 @@
+package com.sudoku.backend.generator;
+
+import com.sudoku.backend.jpa.entities.Sudoku;
+import com.sudoku.backend.services.SudokuService;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.SplittableRandom;
+
+import static com.sudoku.backend.services.GeneratorTestSupport.assertUniquePuzzle;
+import static com.sudoku.backend.services.GeneratorTestSupport.generator;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Transformed puzzles are served in place of generated ones, so every transformation of a generated puzzle must be a
+ * valid puzzle again, with the transformed solution as its only solution.
+ */
+class GridTransformTest {
+    private static final int PUZZLES_PER_DIFFICULTY = 10;
+    private static final int TRANSFORMS_PER_PUZZLE = 20;
+
+    private final SudokuSolver solver = new SudokuSolver();
+    private final SudokuService service = generator(solver);
+
+    @ParameterizedTest
+    @EnumSource(SudokuService.Difficulty.class)
+    void transformsKeepPuzzlesValidAndTheirSolutionUnique(SudokuService.Difficulty difficulty) {
+        SplittableRandom random = new SplittableRandom(difficulty.ordinal());
+        for (int i = 0; i < PUZZLES_PER_DIFFICULTY; i++) {
+            Sudoku sudoku = service.newSudoku(difficulty, random.nextLong());
+            int[][] puzzle = sudoku.getSudoku();
+            int[][] solution = sudoku.getSolution();
+
+            for (int t = 0; t < TRANSFORMS_PER_PUZZLE; t++) {
+                GridTransform transform = GridTransform.random(random);
+                int[][] transformedPuzzle = transform.apply(puzzle);
+                int[][] transformedSolution = transform.apply(solution);
+
+                assertEquals(clues(puzzle), clues(transformedPuzzle));
+                assertUniquePuzzle(solver, transformedPuzzle, transformedSolution);
+                int[][] solved = SudokuSolverTest.copy(transformedPuzzle);
+                assertTrue(solver.solve(solved, random));
+                assertArrayEquals(transformedSolution, solved);
+            }
+        }
+    }
+
+    private static int clues(int[][] grid) {
+        int clues = 0;
+        for (int[] row : grid) {
+            for (int value : row) {
+                if (value != 0) {
+                    clues++;
+                }
+            }
+        }
+        return clues;
+    }
+}
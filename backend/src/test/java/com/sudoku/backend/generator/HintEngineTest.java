@@ -0,0 +1,54 @@
+package com.sudoku.backend.generator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HintEngineTest {
+    // Gets stuck on singles alone and needs locked candidates to be solved.
+    private static final String PUZZLE = "800004670700100380006080000000001000012300000030070800000903250000410090090000010";
+    private static final String SOLUTION = "851234679729156384346789125687541932412398567935672841174963258268415793593827416";
+
+    private final HintEngine engine = new HintEngine();
+
+    @Test
+    void hintsPlaceValuesUntilThePuzzleIsSolved() {
+        int[][] grid = parse(PUZZLE);
+        int[][] solution = parse(SOLUTION);
+        boolean usedEliminations = false;
+        for (HintEngine.Hint hint = engine.nextStep(grid); hint != null; hint = engine.nextStep(grid)) {
+            assertNotEquals(HintEngine.Technique.LOCKED_CANDIDATE, hint.technique());
+            int x = hint.cells()[0][0];
+            int y = hint.cells()[0][1];
+            assertEquals(solution[x][y], hint.value());
+            for (HintEngine.Hint elimination : hint.eliminations()) {
+                assertEquals(HintEngine.Technique.LOCKED_CANDIDATE, elimination.technique());
+            }
+            usedEliminations |= !hint.eliminations().isEmpty();
+            grid[x][y] = hint.value();
+        }
+
+        assertArrayEquals(solution, grid);
+        assertTrue(usedEliminations);
+    }
+
+    @Test
+    void nextStepDoesNotModifyTheGrid() {
+        int[][] grid = parse(PUZZLE);
+        assertNotNull(engine.nextStep(grid));
+
+        assertArrayEquals(parse(PUZZLE), grid);
+    }
+
+    private static int[][] parse(String digits) {
+        int[][] grid = new int[9][9];
+        for (int i = 0; i < digits.length(); i++) {
+            grid[i / 9][i % 9] = digits.charAt(i) - '0';
+        }
+        return grid;
+    }
+}
@@ -0,0 +1,73 @@
+package com.sudoku.backend.generator;
+
+import com.sudoku.backend.jpa.entities.Sudoku;
+import com.sudoku.backend.services.SudokuService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.SplittableRandom;
+
+import static com.sudoku.backend.services.GeneratorTestSupport.assertUniquePuzzle;
+import static com.sudoku.backend.services.GeneratorTestSupport.generator;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SudokuSolverTest {
+    private static final int PUZZLES_PER_DIFFICULTY = 20;
+
+    private final SudokuSolver solver = new SudokuSolver();
+    private final SudokuService service = generator(solver);
+
+    @ParameterizedTest
+    @EnumSource(SudokuService.Difficulty.class)
+    void generatedPuzzlesHaveTheirSolutionAsOnlySolution(SudokuService.Difficulty difficulty) {
+        SplittableRandom seeds = new SplittableRandom(difficulty.ordinal());
+        for (int i = 0; i < PUZZLES_PER_DIFFICULTY; i++) {
+            Sudoku sudoku = service.newSudoku(difficulty, seeds.nextLong());
+            assertUniquePuzzle(solver, sudoku.getSudoku(), sudoku.getSolution());
+        }
+    }
+
+    // A 25x25 generation of the harder difficulties takes seconds, so only the easy one is checked.
+    @ParameterizedTest
+    @CsvSource({"4, EASY", "4, MEDIUM", "4, HARD", "5, EASY"})
+    void generatedLargePuzzlesHaveTheirSolutionAsOnlySolution(int boxSize, SudokuService.Difficulty difficulty) {
+        Sudoku sudoku = service.newSudoku(difficulty, boxSize, boxSize * 31L + difficulty.ordinal());
+        assertEquals(boxSize, sudoku.getBoxSize());
+        assertEquals(boxSize * boxSize, sudoku.getSudoku().length);
+        // The generator's uniqueness checks of large grids have a node budget, this count has none.
+        assertUniquePuzzle(new DancingLinksCounter(), sudoku.getSudoku(), sudoku.getSolution());
+    }
+
+    @Test
+    void solveFillsAnEmptyGridWithAValidSolution() {
+        int[][] grid = new int[9][9];
+        assertTrue(solver.solve(grid, new SplittableRandom(1)));
+        assertTrue(solver.isGridValid(grid));
+    }
+
+    @Test
+    void isGridValidRejectsIncompleteAndConflictingGrids() {
+        int[][] grid = new int[9][9];
+        solver.solve(grid, new SplittableRandom(2));
+
+        int[][] incomplete = copy(grid);
+        incomplete[4][4] = 0;
+        assertFalse(solver.isGridValid(incomplete));
+
+        int[][] conflicting = copy(grid);
+        conflicting[0][0] = conflicting[0][1];
+        assertFalse(solver.isGridValid(conflicting));
+    }
+
+    static int[][] copy(int[][] grid) {
+        int[][] copy = new int[grid.length][];
+        for (int i = 0; i < grid.length; i++) {
+            copy[i] = grid[i].clone();
+        }
+        return copy;
+    }
+}
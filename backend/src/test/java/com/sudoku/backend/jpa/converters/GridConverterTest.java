@@ -0,0 +1,127 @@
+package com.sudoku.backend.jpa.converters;
+
+import com.sudoku.backend.generator.models.Grid;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The stored grids of all saved games are read with this converter, so old rows must stay readable.
+ */
+class GridConverterTest {
+    private static final String PUZZLE = "940075861080906250106008030405000018310800905008054320001089472270030080864007190";
+
+    private final GridConverter converter = new GridConverter();
+
+    @Test
+    void gridsOf9x9RoundTripIn41Bytes() {
+        Grid grid = parse(PUZZLE);
+        byte[] data = converter.convertToDatabaseColumn(grid);
+
+        assertEquals(GridConverter.LENGTH, data.length);
+        assertEquals(41, data.length);
+        assertEquals(grid, converter.convertToEntityAttribute(data));
+    }
+
+    @Test
+    void headerHoldsTheVersionAndTheFirstCellThenTwoCellsPerByte() {
+        byte[] data = converter.convertToDatabaseColumn(parse(PUZZLE));
+
+        // 9 | 40 | 07 | 58 | 61 | ...
+        assertEquals((byte) (GridConverter.VERSION << 4 | 9), data[0]);
+        assertEquals((byte) 0x40, data[1]);
+        assertEquals((byte) 0x07, data[2]);
+        assertEquals((byte) 0x58, data[3]);
+        assertEquals((byte) 0x61, data[4]);
+        // The last byte holds cells 79 and 80.
+        assertEquals((byte) 0x90, data[40]);
+    }
+
+    @Test
+    void largerGridsRoundTripWithOneBytePerCell() {
+        int[][] rows = new int[16][16];
+        for (int x = 0; x < 16; x++) {
+            for (int y = 0; y < 16; y++) {
+                rows[x][y] = (x * 4 + x / 4 + y) % 16 + 1;
+            }
+        }
+        Grid grid = Grid.of(rows);
+        byte[] data = converter.convertToDatabaseColumn(grid);
+
+        assertEquals(1 + 256, data.length);
+        assertEquals((byte) (GridConverter.LARGE_VERSION << 4 | 4), data[0]);
+        assertEquals(16, data[1 + 15]);
+        assertEquals(grid, converter.convertToEntityAttribute(data));
+    }
+
+    @Test
+    void unknownVersionsAndWrongLengthsAreRejected() {
+        byte[] data = converter.convertToDatabaseColumn(parse(PUZZLE));
+
+        byte[] unknownVersion = data.clone();
+        unknownVersion[0] = (byte) (7 << 4 | unknownVersion[0] & 0x0F);
+        assertThrows(IllegalArgumentException.class, () -> converter.convertToEntityAttribute(unknownVersion));
+        assertThrows(IllegalArgumentException.class,
+                () -> converter.convertToEntityAttribute(Arrays.copyOf(data, data.length - 1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> converter.convertToEntityAttribute(new byte[]{(byte) (GridConverter.LARGE_VERSION << 4 | 4), 1}));
+    }
+
+    @Test
+    void nullStaysNull() {
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+
+    @Test
+    void legacyRowsWithASerializedListAreRead() throws IOException {
+        Grid grid = parse(PUZZLE);
+        ArrayList<int[]> rows = new ArrayList<>(Arrays.asList(grid.toArray()));
+
+        Grid read = converter.convertToEntityAttribute(serialize(rows));
+        assertEquals(grid, read);
+        // The next save writes the compact format.
+        assertArrayEquals(converter.convertToDatabaseColumn(grid), converter.convertToDatabaseColumn(read));
+    }
+
+    @Test
+    void legacyRowsWithOtherClassesAreRejected() throws IOException {
+        List<Object> rows = new ArrayList<>();
+        rows.add(new Payload());
+
+        assertThrows(IllegalArgumentException.class, () -> converter.convertToEntityAttribute(serialize(rows)));
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Grid parse(String digits) {
+        int[][] grid = new int[9][9];
+        for (int i = 0; i < digits.length(); i++) {
+            grid[i / 9][i % 9] = digits.charAt(i) - '0';
+        }
+        return Grid.of(grid);
+    }
+
+    /**
+     * A class the filter of legacy rows does not allow.
+     */
+    private static final class Payload implements Serializable {
+    }
+}
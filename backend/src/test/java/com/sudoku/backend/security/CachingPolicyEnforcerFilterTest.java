@@ -0,0 +1,142 @@
+package com.sudoku.backend.security;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.adapters.authorization.integration.jakarta.ServletPolicyEnforcerFilter;
+import org.keycloak.representations.adapters.config.PolicyEnforcerConfig;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the Keycloak policy enforcer with the configuration of the backend against {@link StubAuthorizationServer} and
+ * counts the permission requests it sends to the authorization server.
+ */
+class CachingPolicyEnforcerFilterTest {
+    private static final int REQUESTS = 20;
+
+    private StubAuthorizationServer authorizationServer;
+    private PolicyEnforcerConfig config;
+    private Filter enforcer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        authorizationServer = new StubAuthorizationServer();
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.setSerializationInclusion(JsonInclude.Include.NON_DEFAULT);
+        config = mapper.readValue(getClass().getResourceAsStream("/policy-enforcer.json"), PolicyEnforcerConfig.class);
+        config.setAuthServerUrl(authorizationServer.url());
+        enforcer = new ServletPolicyEnforcerFilter(request -> config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        authorizationServer.close();
+    }
+
+    @Test
+    void enforcerAloneAsksTheAuthorizationServerOnEveryRequest() throws Exception {
+        Jwt token = authorizationServer.accessToken("user");
+        for (int i = 0; i < REQUESTS; i++) {
+            assertEquals(HttpServletResponse.SC_OK, send(enforcer, "GET", "/sudoku/games/" + i, token));
+        }
+
+        assertEquals(REQUESTS, authorizationServer.permissionRequests.get());
+    }
+
+    @Test
+    void cacheAsksOncePerPatternAndMethod() throws Exception {
+        Filter filter = cachingFilter(false);
+        Jwt token = authorizationServer.accessToken("user");
+        for (int i = 0; i < REQUESTS; i++) {
+            assertEquals(HttpServletResponse.SC_OK, send(filter, "GET", "/sudoku/games/" + i, token));
+            assertEquals(HttpServletResponse.SC_OK, send(filter, "GET", "/settings/load", token));
+        }
+
+        assertEquals(2, authorizationServer.permissionRequests.get());
+    }
+
+    @Test
+    void cacheRemembersDenials() throws Exception {
+        authorizationServer.deny("blocked");
+        Filter filter = cachingFilter(false);
+        Jwt token = authorizationServer.accessToken("blocked");
+        for (int i = 0; i < REQUESTS; i++) {
+            assertEquals(HttpServletResponse.SC_FORBIDDEN, send(filter, "GET", "/sudoku/games/" + i, token));
+        }
+
+        assertEquals(1, authorizationServer.permissionRequests.get());
+    }
+
+    @Test
+    void localEvaluationDecidesTokensWithPermissionsWithoutRemoteCalls() throws Exception {
+        Filter filter = cachingFilter(true);
+        Jwt token = authorizationServer.tokenWithPermission("user");
+        for (int i = 0; i < REQUESTS; i++) {
+            assertEquals(HttpServletResponse.SC_OK, send(filter, "POST", "/sudoku/save", token));
+            assertEquals(HttpServletResponse.SC_OK, send(filter, "GET", "/sudoku/daily/today", token));
+        }
+
+        assertEquals(0, authorizationServer.permissionRequests.get());
+    }
+
+    @Test
+    void localEvaluationLeavesTokensWithoutPermissionsToTheCachedEnforcer() throws Exception {
+        Filter filter = cachingFilter(true);
+        Jwt token = authorizationServer.accessToken("user");
+        for (int i = 0; i < REQUESTS; i++) {
+            assertEquals(HttpServletResponse.SC_OK, send(filter, "GET", "/sudoku/games/" + i, token));
+        }
+
+        assertEquals(1, authorizationServer.permissionRequests.get());
+    }
+
+    @Test
+    void unauthorizedAnswersAreNotCached() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        Filter filter = new CachingPolicyEnforcerFilter((request, response, chain) -> {
+            calls.incrementAndGet();
+            ((HttpServletResponse) response).sendError(HttpServletResponse.SC_UNAUTHORIZED);
+        }, new LocalPolicyEvaluator(config), false, 100, Duration.ofMinutes(5));
+        Jwt token = authorizationServer.accessToken("user");
+        for (int i = 0; i < 3; i++) {
+            assertEquals(HttpServletResponse.SC_UNAUTHORIZED, send(filter, "GET", "/sudoku/continue", token));
+        }
+
+        assertEquals(3, calls.get());
+    }
+
+    private Filter cachingFilter(boolean localEvaluation) {
+        return new CachingPolicyEnforcerFilter(enforcer, new LocalPolicyEvaluator(config), localEvaluation, 100,
+                Duration.ofMinutes(5));
+    }
+
+    /**
+     * Sends an authenticated request through the filter.
+     *
+     * @return The status of the response, 200 if the request reached the end of the chain.
+     */
+    private static int send(Filter filter, String method, String path, Jwt token) throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(token));
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.addHeader("Authorization", "Bearer " + token.getTokenValue());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        return chain.getRequest() != null ? HttpServletResponse.SC_OK : response.getStatus();
+    }
+}
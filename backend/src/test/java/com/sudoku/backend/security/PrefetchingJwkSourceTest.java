@@ -0,0 +1,240 @@
+package com.sudoku.backend.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Validates tokens through {@link PrefetchingJwkSource} and {@link CachingJwtDecoder} against a local JWK endpoint
+ * standing in for Keycloak.
+ */
+class PrefetchingJwkSourceTest {
+    private final StubJwkEndpoint endpoint = new StubJwkEndpoint();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private RSAKey key;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        key = newKey("first");
+        endpoint.serve(key);
+        endpoint.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        endpoint.stop();
+    }
+
+    @Test
+    void verifiesEachTokenOnceAndFetchesTheKeysOnce() {
+        try (PrefetchingJwkSource jwkSource = source(Duration.ofMinutes(5), Duration.ofMinutes(1))) {
+            CachingJwtDecoder decoder = decoder(jwkSource);
+            String token = token(key, "user");
+
+            assertEquals("user", decoder.decode(token).getSubject());
+            assertEquals("user", decoder.decode(token).getSubject());
+            decoder.decode(token(key, "other"));
+
+            assertEquals(1, endpoint.requests.get());
+            assertEquals(1, tokenCacheGets("hit"));
+            assertEquals(2, tokenCacheGets("miss"));
+        }
+    }
+
+    @Test
+    void refetchesOnceForAKeyOfARotation() throws Exception {
+        try (PrefetchingJwkSource jwkSource = source(Duration.ofMinutes(5), Duration.ZERO)) {
+            CachingJwtDecoder decoder = decoder(jwkSource);
+            decoder.decode(token(key, "user"));
+
+            RSAKey rotated = newKey("second");
+            endpoint.serve(key, rotated);
+            assertEquals("user", decoder.decode(token(rotated, "user")).getSubject());
+
+            assertEquals(2, endpoint.requests.get());
+            assertEquals(1, count("jwt.jwk.set.unknown.key.refetches"));
+            assertEquals(2, registry.get("jwt.jwk.set.keys").gauge().value());
+        }
+    }
+
+    @Test
+    void doesNotRefetchForUnknownKeysWithinTheMinimumInterval() throws Exception {
+        try (PrefetchingJwkSource jwkSource = source(Duration.ofMinutes(5), Duration.ofHours(1))) {
+            CachingJwtDecoder decoder = decoder(jwkSource);
+            decoder.decode(token(key, "user"));
+
+            RSAKey unknown = newKey("unknown");
+            for (int i = 0; i < 5; i++) {
+                assertThrows(JwtException.class, () -> decoder.decode(token(unknown, "user")));
+            }
+
+            assertEquals(1, endpoint.requests.get());
+            assertEquals(0, count("jwt.jwk.set.unknown.key.refetches"));
+        }
+    }
+
+    @Test
+    void servesAStaleSetWhileRefreshingInTheBackground() throws Exception {
+        try (PrefetchingJwkSource jwkSource = source(Duration.ofMillis(50), Duration.ofMinutes(1))) {
+            CachingJwtDecoder decoder = decoder(jwkSource);
+            decoder.decode(token(key, "user"));
+            Thread.sleep(100);
+
+            // The endpoint fails now, but the stale set still verifies tokens.
+            endpoint.fail();
+            assertEquals("other", decoder.decode(token(key, "other")).getSubject());
+
+            assertEquals(1, count("jwt.jwk.set.stale.serves"));
+            for (int i = 0; i < 50 && fetchFailures() == 0; i++) {
+                Thread.sleep(20);
+            }
+            assertEquals(1, fetchFailures());
+        }
+    }
+
+    @Test
+    void rejectsTokensWhenTheKeysCannotBeFetched() {
+        endpoint.fail();
+        try (PrefetchingJwkSource jwkSource = source(Duration.ofMinutes(5), Duration.ofMinutes(1))) {
+            CachingJwtDecoder decoder = decoder(jwkSource);
+
+            assertThrows(JwtException.class, () -> decoder.decode(token(key, "user")));
+            assertEquals(0, registry.get("cache.size").tag("cache", "jwt-tokens").gauge().value());
+            assertTrue(fetchFailures() > 0);
+        }
+    }
+
+    private PrefetchingJwkSource source(Duration refreshInterval, Duration minRefetchInterval) {
+        PrefetchingJwkSource jwkSource = new PrefetchingJwkSource(endpoint.uri(), refreshInterval, Duration.ofHours(1),
+                minRefetchInterval, Duration.ofSeconds(5), 1);
+        jwkSource.bindTo(registry);
+        return jwkSource;
+    }
+
+    /**
+     * The decoder as the security configuration builds it.
+     */
+    private CachingJwtDecoder decoder(PrefetchingJwkSource jwkSource) {
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource));
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        CachingJwtDecoder decoder = new CachingJwtDecoder(new NimbusJwtDecoder(jwtProcessor), 100, Duration.ofMinutes(10));
+        decoder.bindTo(registry);
+        return decoder;
+    }
+
+    private double count(String name) {
+        return registry.get(name).functionCounter().count();
+    }
+
+    private double fetchFailures() {
+        return registry.get("jwt.jwk.set.fetches").tag("result", "failure").functionCounter().count();
+    }
+
+    private double tokenCacheGets(String result) {
+        return registry.get("cache.gets").tag("cache", "jwt-tokens").tag("result", result).functionCounter().count();
+    }
+
+    private static RSAKey newKey(String keyId) throws JOSEException {
+        return new RSAKeyGenerator(2048).keyID(keyId).generate();
+    }
+
+    private static String token(RSAKey key, String subject) {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject(subject)
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(Duration.ofMinutes(5))))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        try {
+            jwt.sign(new RSASSASigner(key));
+        } catch (JOSEException e) {
+            throw new IllegalStateException(e);
+        }
+        return jwt.serialize();
+    }
+
+    /**
+     * Serves the public keys as a JWK set on a local port and counts the requests.
+     */
+    private static class StubJwkEndpoint {
+        private final AtomicInteger requests = new AtomicInteger();
+        private volatile byte[] jwkSet;
+        private HttpServer server;
+
+        void serve(RSAKey... keys) {
+            List<JWK> publicKeys = new ArrayList<>();
+            for (RSAKey key : keys) {
+                publicKeys.add(key.toPublicJWK());
+            }
+            jwkSet = new JWKSet(publicKeys).toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        void fail() {
+            jwkSet = null;
+        }
+
+        void start() throws IOException {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            server.createContext("/certs", exchange -> {
+                requests.incrementAndGet();
+                byte[] body = jwkSet;
+                if (body == null) {
+                    exchange.sendResponseHeaders(503, -1);
+                    exchange.close();
+                    return;
+                }
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.start();
+        }
+
+        URI uri() {
+            return URI.create("http://localhost:" + server.getAddress().getPort() + "/certs");
+        }
+
+        void stop() {
+            server.stop(0);
+        }
+    }
+}
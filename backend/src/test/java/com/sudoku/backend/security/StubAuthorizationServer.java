@@ -0,0 +1,181 @@
+package com.sudoku.backend.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stands in for Keycloak as the authorization server of the policy enforcer: serves the UMA configuration, issues
+ * client tokens, finds the resource of the realm export by name and grants or denies permission requests.
+ * <p>
+ * Every subject is granted the backend resource except the denied ones. Permission requests are counted, since they
+ * are the remote calls the policy enforcer makes per request.
+ */
+class StubAuthorizationServer implements AutoCloseable {
+    static final String REALM = "sudoku";
+    static final String RESOURCE_ID = "backend-resource";
+    static final String RESOURCE_NAME = "Backend Resource";
+    static final String SCOPE = "urn:sudoku:backend:protected:access";
+    private static final String UMA_GRANT = "urn:ietf:params:oauth:grant-type:uma-ticket";
+
+    final AtomicInteger permissionRequests = new AtomicInteger();
+    private final Set<String> deniedSubjects = ConcurrentHashMap.newKeySet();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final RSAKey key;
+    private final HttpServer server;
+
+    StubAuthorizationServer() throws IOException, JOSEException {
+        key = new RSAKeyGenerator(2048).keyID("stub").generate();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        String realm = "/realms/" + REALM;
+        server.createContext(realm + "/.well-known/uma2-configuration", exchange -> send(exchange, 200, Map.of(
+                "issuer", url() + realm,
+                "token_endpoint", url() + realm + "/protocol/openid-connect/token",
+                "resource_registration_endpoint", url() + realm + "/authz/protection/resource_set",
+                "permission_endpoint", url() + realm + "/authz/protection/permission",
+                "policy_endpoint", url() + realm + "/authz/protection/uma-policy")));
+        server.createContext(realm + "/protocol/openid-connect/token", this::token);
+        server.createContext(realm + "/authz/protection/resource_set", this::resources);
+        server.start();
+    }
+
+    String url() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    void deny(String subject) {
+        deniedSubjects.add(subject);
+    }
+
+    /**
+     * Issues an access token for the subject, without permissions like the tokens of a normal login.
+     */
+    Jwt accessToken(String subject) {
+        return sign(subject, null);
+    }
+
+    /**
+     * Issues a token which already carries the permission for the backend resource, like a requesting party token.
+     */
+    Jwt tokenWithPermission(String subject) {
+        return sign(subject, permission());
+    }
+
+    private void token(HttpExchange exchange) throws IOException {
+        Map<String, String> form = form(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        if (!UMA_GRANT.equals(form.get("grant_type"))) {
+            send(exchange, 200, tokenResponse(sign("service-account-backend", null)));
+            return;
+        }
+        permissionRequests.incrementAndGet();
+        String subject;
+        try {
+            subject = SignedJWT.parse(form.get("subject_token")).getJWTClaimsSet().getSubject();
+        } catch (ParseException | NullPointerException e) {
+            send(exchange, 400, Map.of("error", "invalid_request"));
+            return;
+        }
+        if (deniedSubjects.contains(subject)) {
+            send(exchange, 403, Map.of("error", "access_denied", "error_description", "not_authorized"));
+            return;
+        }
+        send(exchange, 200, tokenResponse(sign(subject, permission())));
+    }
+
+    private void resources(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getRawQuery();
+        Map<String, String> params = form(query != null ? query : "");
+        if (RESOURCE_NAME.equals(params.get("name"))) {
+            send(exchange, 200, List.of(Map.of(
+                    "_id", RESOURCE_ID,
+                    "name", RESOURCE_NAME,
+                    "uris", List.of("/sudoku/*", "/settings/*"),
+                    "resource_scopes", List.of(Map.of("name", SCOPE)))));
+        } else {
+            send(exchange, 200, List.of());
+        }
+    }
+
+    private static Map<String, Object> permission() {
+        return Map.of("permissions", List.of(Map.of("rsid", RESOURCE_ID, "rsname", RESOURCE_NAME,
+                "scopes", List.of(SCOPE))));
+    }
+
+    private static Map<String, Object> tokenResponse(Jwt token) {
+        return Map.of("access_token", token.getTokenValue(), "token_type", "Bearer", "expires_in", 300);
+    }
+
+    private Jwt sign(String subject, Map<String, Object> authorization) {
+        Instant now = Instant.now();
+        JWTClaimsSet.Builder claims = new JWTClaimsSet.Builder()
+                .issuer(url() + "/realms/" + REALM)
+                .subject(subject)
+                .claim("preferred_username", subject)
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(Duration.ofMinutes(5))));
+        if (authorization != null) {
+            claims.claim("authorization", authorization);
+        }
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(),
+                claims.build());
+        try {
+            jwt.sign(new RSASSASigner(key));
+            return new Jwt(jwt.serialize(), now, now.plus(Duration.ofMinutes(5)), jwt.getHeader().toJSONObject(),
+                    jwt.getJWTClaimsSet().toJSONObject());
+        } catch (JOSEException | ParseException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void send(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] json = mapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json);
+        }
+    }
+
+    private static Map<String, String> form(String encoded) {
+        Map<String, String> params = new HashMap<>();
+        for (String pair : encoded.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,141 @@
+package com.sudoku.backend.services;
+
+import com.sudoku.backend.generator.SolutionCounter;
+import com.sudoku.backend.generator.SudokuSolver;
+import com.sudoku.backend.jpa.entities.Sudoku;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.sudoku.backend.services.GeneratorTestSupport.generator;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchGeneratorTest {
+    private static final SudokuService.Difficulty DIFFICULTY = SudokuService.Difficulty.EASY;
+
+    private final GenerationExecutor executor = new GenerationExecutor(new SimpleMeterRegistry(), 4, 64,
+            Duration.ofSeconds(1));
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void aBatchFillsEverySlotWithItsOwnPuzzle() {
+        GatedCounter counter = new GatedCounter(false);
+        BatchGenerator batches = new BatchGenerator(generator(new SudokuSolver(), counter), executor, 0, 20, 1);
+
+        List<Sudoku> sudokus = batches.generate(DIFFICULTY, 12);
+
+        assertEquals(12, sudokus.size());
+        sudokus.forEach(sudoku -> assertNotNull(sudoku.getSeed()));
+        // Every worker draws its seeds from its own split of the batch's random source, so no seed comes up twice.
+        assertEquals(12, sudokus.stream().map(Sudoku::getSeed).distinct().count());
+        assertTrue(counter.threads.size() <= executor.getThreads());
+    }
+
+    @Test
+    void aBatchUsesNoMoreWorkersThanItsParallelism() {
+        GatedCounter counter = new GatedCounter(false);
+        BatchGenerator batches = new BatchGenerator(generator(new SudokuSolver(), counter), executor, 1, 20, 1);
+
+        assertEquals(6, batches.generate(DIFFICULTY, 6).size());
+        assertEquals(1, counter.threads.size());
+    }
+
+    @Test
+    void countsOutsideTheAllowedRangeAreRejected() {
+        BatchGenerator batches = new BatchGenerator(generator(new SudokuSolver()), executor, 0, 20, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> batches.generate(DIFFICULTY, 0));
+        assertThrows(IllegalArgumentException.class, () -> batches.generate(DIFFICULTY, 21));
+        assertEquals(20, batches.generate(DIFFICULTY, 20).size());
+    }
+
+    @Test
+    void batchesBeyondTheConcurrencyLimitAreRejected() throws Exception {
+        GatedCounter counter = new GatedCounter(true);
+        BatchGenerator batches = new BatchGenerator(generator(new SudokuSolver(), counter), executor, 0, 20, 1);
+
+        try (ExecutorService requests = Executors.newSingleThreadExecutor()) {
+            Future<List<Sudoku>> held = requests.submit(() -> batches.generate(DIFFICULTY, 2));
+            assertTrue(counter.started.await(10, TimeUnit.SECONDS));
+
+            assertThrows(RejectedExecutionException.class, () -> batches.generate(DIFFICULTY, 1));
+
+            counter.gate.countDown();
+            assertEquals(2, held.get(10, TimeUnit.SECONDS).size());
+        }
+        // The finished batch gave its place back.
+        assertEquals(1, batches.generate(DIFFICULTY, 1).size());
+    }
+
+    /**
+     * Counts with the bitmask solver and remembers the threads it counted on. A gated counter holds every check until
+     * the gate is opened.
+     */
+    private static final class GatedCounter implements SolutionCounter {
+        private final SudokuSolver solver = new SudokuSolver();
+        private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch gate;
+
+        private GatedCounter(boolean closed) {
+            this.gate = new CountDownLatch(closed ? 1 : 0);
+        }
+
+        @Override
+        public int countSolutions(int[][] grid, int limit) {
+            return open(grid).countSolutions(limit);
+        }
+
+        @Override
+        public Session open(int[][] grid) {
+            Session session = solver.open(grid);
+            return new Session() {
+                @Override
+                public void removeClue(int cellX, int cellY) {
+                    session.removeClue(cellX, cellY);
+                }
+
+                @Override
+                public void restoreClue(int cellX, int cellY, int value) {
+                    session.restoreClue(cellX, cellY, value);
+                }
+
+                @Override
+                public int countSolutions(int limit) {
+                    threads.add(Thread.currentThread());
+                    started.countDown();
+                    try {
+                        gate.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return limit;
+                    }
+                    return session.countSolutions(limit);
+                }
+
+                @Override
+                public long nodeCount() {
+                    return session.nodeCount();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.sudoku.backend.services;
+
+import com.sudoku.backend.generator.SolutionCounter;
+import com.sudoku.backend.generator.SudokuSolver;
+import com.sudoku.backend.generator.models.Grid;
+import com.sudoku.backend.jpa.entities.Sudoku;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.sudoku.backend.services.GeneratorTestSupport.generator;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs jobs on a single generation thread whose uniqueness checks wait until the test releases them, so the test
+ * decides when a job is running, queued or finished.
+ */
+class GenerationJobServiceTest {
+    private static final String OWNER = "owner";
+    private static final SudokuService.Difficulty DIFFICULTY = SudokuService.Difficulty.EASY;
+    private static final Duration LONG = Duration.ofSeconds(30);
+
+    private BlockingCounter counter;
+    private GenerationExecutor executor;
+    private GenerationJobService jobs;
+
+    @BeforeEach
+    void setUp() {
+        counter = new BlockingCounter();
+        executor = new GenerationExecutor(new SimpleMeterRegistry(), 1, 8, Duration.ofSeconds(1));
+        jobs = new GenerationJobService(generator(new SudokuSolver(), counter), executor, Duration.ofSeconds(2), LONG,
+                Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        counter.release.countDown();
+        jobs.shutdown();
+        executor.shutdown();
+    }
+
+    @Test
+    void jobsAreQueuedRunAndDone() throws InterruptedException {
+        String first = jobs.submit(OWNER, DIFFICULTY, LONG).id();
+        assertTrue(counter.started.await(10, TimeUnit.SECONDS));
+        String second = jobs.submit(OWNER, DIFFICULTY, LONG).id();
+
+        assertEquals(GenerationJobService.State.RUNNING, jobs.getStatus(OWNER, first).state());
+        assertEquals(GenerationJobService.State.QUEUED, jobs.getStatus(OWNER, second).state());
+        assertNull(jobs.getSudoku(OWNER, first));
+        assertNull(jobs.getStatus("other", first));
+
+        counter.release.countDown();
+        GenerationJobService.JobStatus done = await(first, GenerationJobService.State.DONE);
+        await(second, GenerationJobService.State.DONE);
+        Sudoku sudoku = jobs.getSudoku(OWNER, first);
+        assertNotNull(sudoku.getSeed());
+        assertNotNull(sudoku.getSolution());
+        assertEquals(sudoku.getClueCount(), done.clueCount());
+        assertTrue(done.targetReached());
+        assertFalse(done.deadlineReached());
+        assertNull(jobs.getSudoku("other", first));
+    }
+
+    @Test
+    void theDeadlineInterruptsARunningJobWhichKeepsItsPuzzle() {
+        String id = jobs.submit(OWNER, DIFFICULTY, Duration.ofMillis(200)).id();
+
+        GenerationJobService.JobStatus status = await(id, GenerationJobService.State.DONE);
+        assertTrue(counter.interrupted);
+        assertTrue(status.deadlineReached());
+        assertFalse(status.targetReached());
+        // The removal stopped at its first check, so the puzzle is still complete and has no seed to restore it.
+        assertEquals(Grid.CELLS, status.clueCount());
+        assertNull(jobs.getSudoku(OWNER, id).getSeed());
+    }
+
+    @Test
+    void aJobStillQueuedAtItsDeadlineFails() throws InterruptedException {
+        String running = jobs.submit(OWNER, DIFFICULTY, LONG).id();
+        assertTrue(counter.started.await(10, TimeUnit.SECONDS));
+        String queued = jobs.submit(OWNER, DIFFICULTY, Duration.ofMillis(100)).id();
+
+        GenerationJobService.JobStatus status = await(queued, GenerationJobService.State.FAILED);
+        assertTrue(status.deadlineReached());
+        assertNull(jobs.getSudoku(OWNER, queued));
+        assertEquals(GenerationJobService.State.RUNNING, jobs.getStatus(OWNER, running).state());
+    }
+
+    @Test
+    void cancellingInterruptsTheWorkerAndDropsTheResult() throws InterruptedException {
+        String cancelled = jobs.submit(OWNER, DIFFICULTY, LONG).id();
+        assertTrue(counter.started.await(10, TimeUnit.SECONDS));
+
+        assertEquals(GenerationJobService.State.CANCELLED, jobs.cancel(OWNER, cancelled).state());
+        assertNull(jobs.cancel("other", cancelled));
+        counter.awaitInterrupt();
+        counter.release.countDown();
+
+        // The next job on the same thread is not hit by the interrupt of the cancelled one.
+        String next = jobs.submit(OWNER, DIFFICULTY, LONG).id();
+        assertFalse(await(next, GenerationJobService.State.DONE).deadlineReached());
+        assertEquals(GenerationJobService.State.CANCELLED, jobs.getStatus(OWNER, cancelled).state());
+        assertNull(jobs.getSudoku(OWNER, cancelled));
+        assertNotNull(jobs.getSudoku(OWNER, next));
+    }
+
+    private GenerationJobService.JobStatus await(String id, GenerationJobService.State state) {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        GenerationJobService.JobStatus status = jobs.getStatus(OWNER, id);
+        while (status.state() != state && System.nanoTime() < end) {
+            Thread.onSpinWait();
+            status = jobs.getStatus(OWNER, id);
+        }
+        assertEquals(state, status.state());
+        return status;
+    }
+
+    /**
+     * Holds every uniqueness check until it is released, then counts with the bitmask solver. A check whose thread is
+     * interrupted while it waits reports the limit, like the real counters.
+     */
+    private static final class BlockingCounter implements SolutionCounter {
+        private final SudokuSolver solver = new SudokuSolver();
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final CountDownLatch interrupt = new CountDownLatch(1);
+        private volatile boolean interrupted;
+
+        @Override
+        public int countSolutions(int[][] grid, int limit) {
+            return open(grid).countSolutions(limit);
+        }
+
+        @Override
+        public Session open(int[][] grid) {
+            Session session = solver.open(grid);
+            return new Session() {
+                @Override
+                public void removeClue(int cellX, int cellY) {
+                    session.removeClue(cellX, cellY);
+                }
+
+                @Override
+                public void restoreClue(int cellX, int cellY, int value) {
+                    session.restoreClue(cellX, cellY, value);
+                }
+
+                @Override
+                public int countSolutions(int limit) {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                        interrupt.countDown();
+                        Thread.currentThread().interrupt();
+                        return limit;
+                    }
+                    return session.countSolutions(limit);
+                }
+
+                @Override
+                public long nodeCount() {
+                    return session.nodeCount();
+                }
+            };
+        }
+
+        private void awaitInterrupt() throws InterruptedException {
+            assertTrue(interrupt.await(10, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.sudoku.backend.services;
+
+import com.sudoku.backend.generator.SolutionCounter;
+import com.sudoku.backend.generator.SudokuSolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Shared setup of the generator tests: a {@link SudokuService} which only generates puzzles, without a database, and
+ * the checks every generated puzzle has to pass.
+ */
+public final class GeneratorTestSupport {
+    public static final long LARGE_GRID_NODE_BUDGET = 100_000;
+
+    private GeneratorTestSupport() {
+    }
+
+    /**
+     * A service which generates with the solver and checks uniqueness with the counter. Everything else is left out,
+     * so only the generating methods may be called.
+     */
+    public static SudokuService generator(SudokuSolver solver, SolutionCounter counter) {
+        return new SudokuService(null, null, solver, counter, null, null, null,
+                new GeneratorMetrics(new SimpleMeterRegistry()), null, 0, List.of(), 0, 0, LARGE_GRID_NODE_BUDGET);
+    }
+
+    public static SudokuService generator(SudokuSolver solver) {
+        return generator(solver, solver);
+    }
+
+    /**
+     * Asserts that the solution is a valid grid, that the clues of the puzzle agree with it and that it is the only
+     * solution of the puzzle.
+     *
+     * @param counter Counts the solutions of the puzzle, it should not have a node budget.
+     */
+    public static void assertUniquePuzzle(SolutionCounter counter, int[][] puzzle, int[][] solution) {
+        assertTrue(new SudokuSolver().isGridValid(solution));
+        for (int x = 0; x < puzzle.length; x++) {
+            for (int y = 0; y < puzzle.length; y++) {
+                assertTrue(puzzle[x][y] == 0 || puzzle[x][y] == solution[x][y]);
+            }
+        }
+        assertEquals(1, counter.countSolutions(puzzle, 2));
+    }
+}
@@ -0,0 +1,59 @@
+package com.sudoku.backend.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LeaderboardTest {
+    private static final Instant NOON = Instant.parse("2026-01-01T12:00:00Z");
+
+    private final Leaderboard leaderboard = new Leaderboard();
+
+    @Test
+    void ranksByTimeThenErrorsThenSubmission() {
+        leaderboard.submit(entry("slow", 9000, 0, 0));
+        leaderboard.submit(entry("careless", 5000, 3, 0));
+        leaderboard.submit(entry("late", 5000, 1, 2));
+        leaderboard.submit(entry("early", 5000, 1, 1));
+        leaderboard.submit(entry("fast", 1000, 7, 3));
+
+        assertEquals(List.of("fast", "early", "late", "careless", "slow"), names(leaderboard.top(10)));
+        assertEquals(List.of(1, 2, 3, 4, 5), leaderboard.top(10).stream().map(Leaderboard.Ranked::rank).toList());
+        assertEquals(List.of("fast", "early"), names(leaderboard.top(2)));
+        assertEquals(4, leaderboard.get("careless").rank());
+    }
+
+    @Test
+    void onlyTheBestResultOfAPlayerIsRanked() {
+        assertEquals(1, leaderboard.submit(entry("a", 4000, 0, 0)));
+        assertEquals(1, leaderboard.submit(entry("b", 3000, 0, 1)));
+        // A worse result keeps the better one and its rank.
+        assertEquals(2, leaderboard.submit(entry("a", 8000, 0, 2)));
+        assertEquals(4000, leaderboard.get("a").elapsedTime());
+        // A better one replaces it.
+        assertEquals(1, leaderboard.submit(entry("a", 2000, 0, 3)));
+
+        assertEquals(2, leaderboard.size());
+        assertEquals(List.of("a", "b"), names(leaderboard.top(10)));
+        assertEquals(2, leaderboard.get("b").rank());
+    }
+
+    @Test
+    void playersWithoutResultHaveNoRank() {
+        leaderboard.submit(entry("a", 4000, 0, 0));
+
+        assertNull(leaderboard.get("b"));
+    }
+
+    private static Leaderboard.Entry entry(String userId, long elapsedTime, int errorCount, int second) {
+        return new Leaderboard.Entry(userId, userId, elapsedTime, errorCount, NOON.plusSeconds(second));
+    }
+
+    private static List<String> names(List<Leaderboard.Ranked> ranked) {
+        return ranked.stream().map(Leaderboard.Ranked::playerName).toList();
+    }
+}
@@ -0,0 +1,84 @@
+package com.sudoku.backend.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RankedSetTest {
+    private static final int OPERATIONS = 5000;
+
+    @Test
+    void matchesASortedListUnderRandomAddsAndRemoves() {
+        SplittableRandom random = new SplittableRandom(0);
+        RankedSet<Integer> set = new RankedSet<>(Comparator.naturalOrder());
+        // Small values, so the set holds many elements which compare equal.
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < OPERATIONS; i++) {
+            int value = random.nextInt(200);
+            int position = lowerBound(expected, value);
+            boolean present = position < expected.size() && expected.get(position) == value;
+            if (random.nextInt(3) == 0) {
+                assertEquals(present, set.remove(value));
+                if (present) {
+                    expected.remove(position);
+                }
+            } else {
+                set.add(value);
+                expected.add(position, value);
+            }
+
+            assertEquals(expected.size(), set.size());
+            int probe = random.nextInt(201);
+            assertEquals(lowerBound(expected, probe), set.rank(probe));
+            int k = random.nextInt(expected.size() + 2);
+            assertEquals(expected.subList(0, Math.min(k, expected.size())), set.first(k));
+        }
+    }
+
+    @Test
+    void removeOnlyTakesOneOfTheEqualElements() {
+        RankedSet<Integer> set = new RankedSet<>(Comparator.naturalOrder());
+        set.add(2);
+        set.add(1);
+        set.add(2);
+
+        assertTrue(set.remove(2));
+        assertEquals(List.of(1, 2), set.first(10));
+        assertFalse(set.remove(3));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    void emptySetHasNoElementsAndRanksEverythingFirst() {
+        RankedSet<Integer> set = new RankedSet<>(Comparator.naturalOrder());
+
+        assertEquals(0, set.size());
+        assertEquals(0, set.rank(5));
+        assertEquals(List.of(), set.first(3));
+        assertFalse(set.remove(5));
+    }
+
+    /**
+     * The index of the first element which is not smaller than the value.
+     */
+    private static int lowerBound(List<Integer> sorted, int value) {
+        int low = 0;
+        int high = sorted.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted.get(middle) < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,77 @@
+package com.sudoku.backend.services;
+
+import com.sudoku.backend.generator.DancingLinksCounter;
+import com.sudoku.backend.generator.SudokuSolver;
+import com.sudoku.backend.generator.models.Grid;
+import com.sudoku.backend.jpa.converters.GridConverter;
+import com.sudoku.backend.jpa.entities.Sudoku;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+import static com.sudoku.backend.services.GeneratorTestSupport.generator;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 9x9 games are saved by their seed and regenerated when they are loaded, so a seed has to produce the same puzzle
+ * forever. These grids were generated when seeded games were introduced; if this test fails, the generator changed
+ * the random values it consumes or the order of its search and breaks every game saved so far.
+ * Larger grids are saved with their grids, their seed only has to reproduce them with the same configuration.
+ */
+class SeededGenerationTest {
+    private static final String GOLDEN = """
+            EASY, 1, 940075861080906250106008030405000018310800905008054320001089472270030080864007190, 942375861783916254156248739425793618317862945698154327531689472279431586864527193
+            EASY, 20240601, 180605930000004700634080002215006300043007261760302059809501020300008145051003897, 187625934592134786634789512215496378943857261768312459879541623326978145451263897
+            EASY, -7, 905008463062030089300956700023000675549763108000512094000047006207690001006020907, 915278463762134589384956712123489675549763128678512394891347256237695841456821937
+            MEDIUM, 1, 940075861000906250006008000405000000310800900008004320001089472070030080804007090, 942375861783916254156248739425793618317862945698154327531689472279431586864527193
+            MEDIUM, 20240601, 180605900000004700634080002015006000040007261760302059800501020000008145000000097, 187625934592134786634789512215496378943857261768312459879541623326978145451263897
+            MEDIUM, -7, 905008460062000009300056000023000605540763108000512000000047000207690001006020907, 915278463762134589384956712123489675549763128678512394891347256237695841456821937
+            HARD, 1, 900075801000900250006008000005000000310800900000004300001000402070030080804000090, 942375861783916254156248739425793618317862945698154327531689472279431586864527193
+            HARD, 20240601, 080605900000004700630080002005000000040007061000302009800501000000000145000000097, 187625934592134786634789512215496378943857261768312459879541623326978145451263897
+            HARD, -7, 905008460060000009300006000023000005500760108000012000000047000207690000000000900, 915278463762134589384956712123489675549763128678512394891347256237695841456821937
+            """;
+
+    @ParameterizedTest
+    @CsvSource(textBlock = GOLDEN)
+    void seedsReproduceTheGoldenPuzzlesWithTheBitmaskCounter(SudokuService.Difficulty difficulty, long seed,
+                                                            String puzzle, String solution) {
+        SudokuSolver solver = new SudokuSolver();
+        assertGenerates(generator(solver), difficulty, seed, puzzle, solution);
+    }
+
+    @ParameterizedTest
+    @CsvSource(textBlock = GOLDEN)
+    void seedsReproduceTheGoldenPuzzlesWithDancingLinks(SudokuService.Difficulty difficulty, long seed,
+                                                       String puzzle, String solution) {
+        assertGenerates(generator(new SudokuSolver(), new DancingLinksCounter()), difficulty, seed, puzzle, solution);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {4, 5})
+    void seedsReproduceLargePuzzlesWhichSurviveTheStorageFormat(int boxSize) {
+        Sudoku sudoku = generator(new SudokuSolver()).newSudoku(SudokuService.Difficulty.EASY, boxSize, 1L);
+        Sudoku again = generator(new SudokuSolver()).newSudoku(SudokuService.Difficulty.EASY, boxSize, 1L);
+        assertEquals(1L, sudoku.getSeed());
+        assertEquals(sudoku.getSudokuGrid(), again.getSudokuGrid());
+        assertEquals(sudoku.getSolutionGrid(), again.getSolutionGrid());
+
+        // Larger grids are stored with their grids in the one byte per cell format.
+        GridConverter converter = new GridConverter();
+        for (Grid grid : List.of(sudoku.getSudokuGrid(), sudoku.getSolutionGrid())) {
+            byte[] data = converter.convertToDatabaseColumn(grid);
+            assertEquals(1 + grid.cellCount(), data.length);
+            assertEquals(2 << 4 | boxSize, data[0]);
+            assertEquals(grid, converter.convertToEntityAttribute(data));
+        }
+    }
+
+    private static void assertGenerates(SudokuService service, SudokuService.Difficulty difficulty, long seed,
+                                        String puzzle, String solution) {
+        Sudoku sudoku = service.newSudoku(difficulty, seed);
+        assertEquals(seed, sudoku.getSeed());
+        assertEquals(puzzle, sudoku.getSudokuGrid().toDigits());
+        assertEquals(solution, sudoku.getSolutionGrid().toDigits());
+    }
+}
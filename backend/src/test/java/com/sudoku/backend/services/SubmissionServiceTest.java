@@ -0,0 +1,130 @@
+package com.sudoku.backend.services;
+
+import com.sudoku.backend.generator.SudokuSolver;
+import com.sudoku.backend.jpa.repository.DailySudokuRepository;
+import com.sudoku.backend.jpa.repository.SubmissionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static com.sudoku.backend.services.GeneratorTestSupport.generator;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Submits results of the daily puzzle against an in-memory database.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=jdbc:h2:mem:submissions;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;NON_KEYWORDS=DAY",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SubmissionServiceTest {
+    private static final SudokuService.Difficulty DIFFICULTY = SudokuService.Difficulty.EASY;
+
+    @Autowired
+    private DailySudokuRepository dailySudokuRepository;
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
+    private GenerationExecutor generationExecutor;
+    private DailySudokuService dailySudokuService;
+    private SubmissionService service;
+    private LocalDate today;
+    private int[][] solution;
+
+    @BeforeEach
+    void setUp() {
+        generationExecutor = new GenerationExecutor(new SimpleMeterRegistry(), 1, 8, Duration.ofSeconds(1));
+        dailySudokuService = new DailySudokuService(dailySudokuRepository, generator(new SudokuSolver()),
+                generationExecutor, ZoneOffset.UTC);
+        service = newService();
+        today = dailySudokuService.today();
+        solution = dailySudokuService.getToday(DIFFICULTY).getSolution().toArray();
+    }
+
+    @AfterEach
+    void tearDown() {
+        generationExecutor.shutdown();
+        submissionRepository.deleteAll();
+        dailySudokuRepository.deleteAll();
+    }
+
+    @Test
+    void resultsAreRankedByTheTimeMeasuredOnTheServer() throws InterruptedException {
+        service.start("a", DIFFICULTY);
+        Thread.sleep(20);
+        service.start("b", DIFFICULTY);
+        Thread.sleep(20);
+
+        // b started later and is done first, so its time is shorter despite its errors.
+        assertEquals(1, service.submit("b", "B", today, DIFFICULTY, solution, 5).ranked().rank());
+        assertEquals(2, service.submit("a", "A", today, DIFFICULTY, solution, 0).ranked().rank());
+
+        assertEquals(List.of("B", "A"), names(service.top(today, DIFFICULTY, 10)));
+        assertEquals(2, service.get(today, DIFFICULTY, "a").rank());
+        assertNull(service.get(today, DIFFICULTY, "c"));
+    }
+
+    @Test
+    void flushedResultsKeepTheirRanksInANewService() throws InterruptedException {
+        service.start("a", DIFFICULTY);
+        Thread.sleep(20);
+        service.start("b", DIFFICULTY);
+        service.start("c", DIFFICULTY);
+        service.submit("b", "B", today, DIFFICULTY, solution, 0);
+        Thread.sleep(20);
+        service.submit("c", "C", today, DIFFICULTY, solution, 0);
+        service.submit("a", "A", today, DIFFICULTY, solution, 0);
+        service.flush();
+
+        assertEquals(3, submissionRepository.count());
+        assertEquals(List.of("B", "C", "A"), names(newService().top(today, DIFFICULTY, 10)));
+    }
+
+    @Test
+    void wrongGridsAndAnonymousPlayersAreNotRanked() {
+        int[][] wrong = new int[9][9];
+        service.start("a", DIFFICULTY);
+
+        SubmissionService.Result result = service.submit("a", "A", today, DIFFICULTY, wrong, 0);
+        assertFalse(result.correct());
+        assertNull(result.ranked());
+        SubmissionService.Result anonymous = service.submit(null, null, today, DIFFICULTY, solution, 0);
+        assertNull(anonymous.ranked());
+        assertEquals(List.of(), service.top(today, DIFFICULTY, 10));
+    }
+
+    @Test
+    void submissionsNeedAStartOfToday() {
+        assertThrows(IllegalStateException.class, () -> service.submit("a", "A", today, DIFFICULTY, solution, 0));
+        service.start("a", DIFFICULTY);
+        assertThrows(IllegalArgumentException.class,
+                () -> service.submit("a", "A", today.minusDays(1), DIFFICULTY, solution, 0));
+        assertThrows(IllegalArgumentException.class, () -> service.submit("a", "A", today, DIFFICULTY, solution, -1));
+        assertThrows(IllegalArgumentException.class, () -> service.top(today.plusDays(1), DIFFICULTY, 10));
+    }
+
+    private SubmissionService newService() {
+        return new SubmissionService(dailySudokuService, submissionRepository, new SimpleMeterRegistry(), 100, 10,
+                Duration.ofMinutes(1), 4, 100);
+    }
+
+    private static List<String> names(List<Leaderboard.Ranked> ranked) {
+        return ranked.stream().map(Leaderboard.Ranked::playerName).toList();
+    }
+}
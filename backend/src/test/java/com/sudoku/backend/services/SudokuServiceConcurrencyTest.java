@@ -0,0 +1,199 @@
+package com.sudoku.backend.services;
+
+import com.sudoku.backend.generator.SudokuSolver;
+import com.sudoku.backend.generator.models.Grid;
+import com.sudoku.backend.jpa.entities.Sudoku;
+import com.sudoku.backend.jpa.repository.ContinueLaterRepository;
+import com.sudoku.backend.jpa.repository.SudokuMoveRepository;
+import com.sudoku.backend.jpa.repository.SudokuRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Saves games from several threads at once, like a user with many open tabs, against an in-memory database.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=jdbc:h2:mem:sudoku;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;NON_KEYWORDS=DAY;LOCK_TIMEOUT=10000",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SudokuServiceConcurrencyTest {
+    private static final String USER = "user";
+    private static final int TABS = 8;
+    private static final int MAX_SAVED_GAMES = 3;
+
+    @Autowired
+    private SudokuRepository sudokuRepository;
+    @Autowired
+    private ContinueLaterRepository continueLaterRepository;
+    @Autowired
+    private SudokuMoveRepository moveRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private SudokuService service;
+
+    @BeforeEach
+    void setUp() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        SudokuSolver solver = new SudokuSolver();
+        service = new SudokuService(sudokuRepository, continueLaterRepository, solver, solver,
+                new ActiveGameCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1)),
+                new MoveLogService(moveRepository, sudokuRepository, continueLaterRepository, transactionTemplate),
+                transactionTemplate, new GeneratorMetrics(new SimpleMeterRegistry()),
+                new GenerationExecutor(new SimpleMeterRegistry(), 2, 64, Duration.ofSeconds(1)), MAX_SAVED_GAMES,
+                List.of(), 0, 0, 100_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        moveRepository.deleteAll();
+        continueLaterRepository.deleteAll();
+        sudokuRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentSavesOfTheSameGameKeepOneSudokuRow() throws Exception {
+        int id = service.saveForUser(USER, service.newSudoku(SudokuService.Difficulty.EASY, 1L)).getId();
+
+        inTabs(tab -> {
+            Sudoku sudoku = service.newSudoku(SudokuService.Difficulty.EASY, 1L);
+            ReflectionTestUtils.setField(sudoku, "id", id);
+            sudoku.setErrorCount(tab);
+            return service.saveForUser(USER, sudoku);
+        });
+
+        assertEquals(1, continueLaterRepository.count());
+        assertEquals(1, sudokuRepository.count());
+        assertEquals(id, sudokuRepository.findAll().iterator().next().getId());
+    }
+
+    @Test
+    void concurrentSavesOfNewGamesLeaveNoOrphanedSudokuRows() throws Exception {
+        inTabs(tab -> service.saveForUser(USER, service.newSudoku(SudokuService.Difficulty.EASY, (long) tab)));
+
+        assertEquals(continueLaterRepository.count(), sudokuRepository.count());
+    }
+
+    @Test
+    void concurrentSavesOfNewGamesFillExactlyTheAllowedSlots() throws Exception {
+        inTabs(tab -> service.saveForUser(USER, service.newSudoku(SudokuService.Difficulty.EASY, (long) tab)));
+
+        assertEquals(MAX_SAVED_GAMES, continueLaterRepository.count());
+    }
+
+    @Test
+    void movesAndDeltasResolveTheGameById() {
+        Sudoku first = service.saveForUser(USER, service.newSudoku(SudokuService.Difficulty.EASY, 1L));
+        Sudoku second = service.saveForUser(USER, service.newSudoku(SudokuService.Difficulty.EASY, 2L));
+        int[][] solution = first.getSolution();
+
+        // The second game is the cached one, a move in the first game must still be checked against its own solution.
+        assertEquals(true, service.checkMove(USER, first.getId(), 0, 0, solution[0][0]));
+        assertEquals(false, service.checkMove(USER, first.getId(), 0, 0, solution[0][0] % 9 + 1));
+        assertNull(service.checkMove(USER, first.getId() + second.getId(), 0, 0, 1));
+        assertNull(service.checkMove("other", first.getId(), 0, 0, 1));
+
+        MoveLogService.Delta delta = new MoveLogService.Delta(second.getId(),
+                List.of(new MoveLogService.CellChange(0, 0, 1)), 0, 0);
+        assertTrue(service.saveDeltaForUser(USER, delta));
+        assertFalse(service.saveDeltaForUser("other", delta));
+        assertEquals(1, moveRepository.count());
+    }
+
+    @Test
+    void onlyGamesOf9x9GridsAreStoredWithoutTheirGrids() {
+        Sudoku small = service.newSudoku(SudokuService.Difficulty.EASY, 1L);
+        Sudoku large = service.newSudoku(SudokuService.Difficulty.EASY, 4, 1L);
+        Grid smallPuzzle = small.getSudokuGrid();
+        Grid largePuzzle = large.getSudokuGrid();
+        Grid largeSolution = large.getSolutionGrid();
+        int smallId = service.saveForUser(USER, small).getId();
+        int largeId = service.saveForUser(USER, large).getId();
+
+        assertNull(sudokuRepository.findById(smallId).orElseThrow().getSudokuGrid());
+        Sudoku stored = sudokuRepository.findById(largeId).orElseThrow();
+        assertEquals(largePuzzle, stored.getSudokuGrid());
+        assertEquals(largeSolution, stored.getSolutionGrid());
+        assertEquals(smallPuzzle, service.getGame(USER, smallId).getSudokuGrid());
+        assertEquals(largePuzzle, service.getGame(USER, largeId).getSudokuGrid());
+    }
+
+    @Test
+    void compactionFoldsTheLogIntoTheSnapshotAndKeepsLaterEntries() {
+        Sudoku sudoku = service.saveForUser(USER, service.newSudoku(SudokuService.Difficulty.EASY, 1L));
+        MoveLogService moveLog = new MoveLogService(moveRepository, sudokuRepository, continueLaterRepository,
+                new TransactionTemplate(transactionManager));
+        moveLog.append(sudoku.getId(), 9, new MoveLogService.Delta(sudoku.getId(),
+                List.of(new MoveLogService.CellChange(0, 0, 4)), 1, 1000));
+        moveLog.compact(sudoku.getId());
+        assertEquals(0, moveRepository.count());
+
+        moveLog.append(sudoku.getId(), 9, new MoveLogService.Delta(sudoku.getId(),
+                List.of(new MoveLogService.CellChange(8, 8, 5)), 2, 2000));
+        Sudoku snapshot = sudokuRepository.findById(sudoku.getId()).orElseThrow();
+        assertEquals(4, snapshot.getProgress()[0][0]);
+        assertEquals(0, snapshot.getProgress()[8][8]);
+        assertEquals(1, moveRepository.count());
+
+        Sudoku continued = service.getGame(USER, sudoku.getId());
+        assertEquals(4, continued.getProgress()[0][0]);
+        assertEquals(5, continued.getProgress()[8][8]);
+        assertEquals(2, continued.getErrorCount());
+    }
+
+    /**
+     * Runs the save once per tab, all tabs starting at the same time, and ignores saves rejected for exceeding the
+     * maximum number of saved games.
+     */
+    private void inTabs(TabSave save) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Sudoku>> saves = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(TABS)) {
+            for (int tab = 0; tab < TABS; tab++) {
+                int current = tab;
+                saves.add(executor.submit((Callable<Sudoku>) () -> {
+                    start.await();
+                    try {
+                        return save.save(current);
+                    } catch (IllegalStateException e) {
+                        return null;
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Sudoku> future : saves) {
+                future.get();
+            }
+        }
+    }
+
+    private interface TabSave {
+        Sudoku save(int tab);
+    }
+}